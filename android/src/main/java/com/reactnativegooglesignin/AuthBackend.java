@@ -0,0 +1,72 @@
+package com.reactnativegooglesignin;
+
+import android.accounts.Account;
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.auth.GoogleAuthException;
+import com.google.android.gms.auth.api.identity.BeginSignInRequest;
+import com.google.android.gms.auth.api.identity.BeginSignInResult;
+import com.google.android.gms.auth.api.identity.SignInCredential;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.Scope;
+import com.google.android.gms.tasks.Task;
+
+import java.io.IOException;
+
+/**
+ * Every call into Play Services that the module makes. {@link PlayServicesAuthBackend} is used unless
+ * another implementation is passed to {@link RNGoogleSigninPackage#RNGoogleSigninPackage(AuthBackend)}.
+ * The module never talks to Play Services directly, so it can be exercised on the JVM with a fake backend.
+ * Implementations must be thread-safe, all methods may be called from background threads.
+ */
+public interface AuthBackend {
+    @NonNull
+    Task<GoogleSignInAccount> silentSignIn(@NonNull Context context, @NonNull GoogleSignInOptions options);
+
+    @NonNull
+    Intent getSignInIntent(@NonNull Context context, @NonNull GoogleSignInOptions options);
+
+    @NonNull
+    Task<Void> signOut(@NonNull Context context, @NonNull GoogleSignInOptions options);
+
+    @NonNull
+    Task<Void> revokeAccess(@NonNull Context context, @NonNull GoogleSignInOptions options);
+
+    @Nullable
+    GoogleSignInAccount getLastSignedInAccount(@NonNull Context context);
+
+    @NonNull
+    Task<GoogleSignInAccount> getSignedInAccountFromIntent(@Nullable Intent data);
+
+    void requestPermissions(@NonNull Activity activity, int requestCode, @NonNull GoogleSignInAccount account, @NonNull Scope... scopes);
+
+    @NonNull
+    Task<BeginSignInResult> beginOneTapSignIn(@NonNull Context context, @NonNull BeginSignInRequest request);
+
+    @NonNull
+    SignInCredential getOneTapCredentialFromIntent(@NonNull Context context, @Nullable Intent data) throws ApiException;
+
+    @NonNull
+    Task<Void> signOutOneTap(@NonNull Context context);
+
+    @NonNull
+    String getToken(@NonNull Context context, @NonNull Account account, @NonNull String scope) throws IOException, GoogleAuthException;
+
+    void clearToken(@NonNull Context context, @NonNull String token) throws IOException, GoogleAuthException;
+
+    /**
+     * @return a ConnectionResult status code
+     */
+    int isGooglePlayServicesAvailable(@NonNull Context context);
+
+    boolean isUserResolvableError(int status);
+
+    void showErrorDialog(@NonNull Activity activity, int status, int requestCode);
+}
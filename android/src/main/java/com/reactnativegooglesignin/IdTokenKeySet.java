@@ -0,0 +1,112 @@
+package com.reactnativegooglesignin;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * The RSA public keys that Google signs ID tokens with, in JWK set format, keyed by their "kid".
+ * The set is persisted, so verification works offline, and can be replaced at any time: either with
+ * keys fetched from {@link #GOOGLE_CERTS_URL} or with a set injected by the app (e.g. in tests).
+ */
+public class IdTokenKeySet {
+    public static final String GOOGLE_CERTS_URL = "https://www.googleapis.com/oauth2/v3/certs";
+
+    private static final String PREFS_NAME = "RNGoogleSigninIdTokenKeys";
+    private static final String PREFS_KEY = "jwks";
+
+    private final Context context;
+    private Map<String, PublicKey> keys;
+
+    public IdTokenKeySet(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Nullable
+    public synchronized PublicKey getKey(@NonNull String keyId) {
+        if (keys == null) {
+            String jwks = getPreferences().getString(PREFS_KEY, null);
+            try {
+                keys = jwks == null ? Collections.<String, PublicKey>emptyMap() : parse(jwks);
+            } catch (GeneralSecurityException | JSONException e) {
+                keys = Collections.emptyMap();
+            }
+        }
+        return keys.get(keyId);
+    }
+
+    /**
+     * Replaces the key set and persists it.
+     *
+     * @param jwks a JWK set, i.e. {@code {"keys": [{"kid", "kty": "RSA", "n", "e"}, ...]}}
+     */
+    public synchronized void setKeys(@NonNull String jwks) throws GeneralSecurityException, JSONException {
+        keys = parse(jwks);
+        getPreferences().edit().putString(PREFS_KEY, jwks).apply();
+    }
+
+    /**
+     * Replaces the key set with the one Google currently publishes.
+     */
+    @WorkerThread
+    public void fetch(@NonNull OkHttpClient client) throws IOException, GeneralSecurityException, JSONException {
+        Request request = new Request.Builder().url(GOOGLE_CERTS_URL).build();
+        Response response = client.newCall(request).execute();
+        try {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("fetching ID token keys failed with " + response.code());
+            }
+            setKeys(body.string());
+        } finally {
+            response.close();
+        }
+    }
+
+    private static Map<String, PublicKey> parse(String jwks) throws GeneralSecurityException, JSONException {
+        Map<String, PublicKey> result = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        JSONArray keysJson = new JSONObject(jwks).getJSONArray("keys");
+        for (int i = 0; i < keysJson.length(); i++) {
+            JSONObject key = keysJson.getJSONObject(i);
+            if (!"RSA".equals(key.optString("kty"))) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, decodeBase64Url(key.getString("n")));
+            BigInteger exponent = new BigInteger(1, decodeBase64Url(key.getString("e")));
+            result.put(key.getString("kid"), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return result;
+    }
+
+    static byte[] decodeBase64Url(String value) {
+        return Base64.decode(value, Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+    }
+
+    private SharedPreferences getPreferences() {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,171 @@
+package com.reactnativegooglesignin;
+
+import static com.reactnativegooglesignin.IdTokenKeySet.decodeBase64Url;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Verifies Google ID tokens locally: the RS256 signature against {@link IdTokenKeySet}, and the
+ * "iss", "aud", "exp" and "hd" claims. Verdicts are cached per token, so checking the same token
+ * again is a map lookup. A valid verdict is only reused until the token expires. The cache is
+ * cleared whenever the key set changes.
+ */
+public class IdTokenVerifier {
+    static final int MAX_CACHED_VERDICTS = 16;
+    static final long CLOCK_SKEW_MS = 5 * 60 * 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static class Verdict {
+        @Nullable
+        public final String failureReason;
+        final long expiresAt;
+
+        private Verdict(@Nullable String failureReason, long expiresAt) {
+            this.failureReason = failureReason;
+            this.expiresAt = expiresAt;
+        }
+
+        static Verdict valid(long expiresAt) {
+            return new Verdict(null, expiresAt);
+        }
+
+        static Verdict invalid(String failureReason) {
+            return new Verdict(failureReason, Long.MAX_VALUE);
+        }
+
+        public boolean isValid() {
+            return failureReason == null && System.currentTimeMillis() < expiresAt + CLOCK_SKEW_MS;
+        }
+    }
+
+    private final IdTokenKeySet keySet;
+    private final Map<String, Verdict> verdicts = new LinkedHashMap<String, Verdict>(MAX_CACHED_VERDICTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+            return size() > MAX_CACHED_VERDICTS;
+        }
+    };
+
+    public IdTokenVerifier(@NonNull IdTokenKeySet keySet) {
+        this.keySet = keySet;
+    }
+
+    public void setKeys(@NonNull String jwks) throws GeneralSecurityException, JSONException {
+        keySet.setKeys(jwks);
+        clearVerdicts();
+    }
+
+    @WorkerThread
+    public void fetchKeys(@NonNull OkHttpClient client) throws IOException, GeneralSecurityException, JSONException {
+        keySet.fetch(client);
+        clearVerdicts();
+    }
+
+    /**
+     * @param audience     the web client id the token must be issued for
+     * @param hostedDomain if not null, the G Suite domain the account must belong to
+     */
+    @NonNull
+    public Verdict verify(@NonNull String idToken, @NonNull String audience, @Nullable String hostedDomain) {
+        String cacheKey = audience + " " + hostedDomain + " " + idToken;
+        synchronized (verdicts) {
+            Verdict cached = verdicts.get(cacheKey);
+            if (cached != null && (cached.failureReason != null || cached.isValid())) {
+                return cached;
+            }
+        }
+        Verdict verdict = computeVerdict(idToken, audience, hostedDomain);
+        synchronized (verdicts) {
+            verdicts.put(cacheKey, verdict);
+        }
+        return verdict;
+    }
+
+    private void clearVerdicts() {
+        synchronized (verdicts) {
+            verdicts.clear();
+        }
+    }
+
+    private Verdict computeVerdict(String idToken, String audience, @Nullable String hostedDomain) {
+        String[] parts = idToken.split("\\.");
+        if (parts.length != 3) {
+            return Verdict.invalid("malformed token");
+        }
+
+        JSONObject header;
+        JSONObject payload;
+        byte[] signature;
+        try {
+            header = new JSONObject(new String(decodeBase64Url(parts[0]), UTF_8));
+            payload = new JSONObject(new String(decodeBase64Url(parts[1]), UTF_8));
+            signature = decodeBase64Url(parts[2]);
+        } catch (JSONException | IllegalArgumentException e) {
+            return Verdict.invalid("malformed token");
+        }
+
+        if (!"RS256".equals(header.optString("alg"))) {
+            return Verdict.invalid("unsupported algorithm " + header.optString("alg"));
+        }
+        PublicKey key = keySet.getKey(header.optString("kid"));
+        if (key == null) {
+            return Verdict.invalid("unknown signing key");
+        }
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(key);
+            verifier.update((parts[0] + "." + parts[1]).getBytes(UTF_8));
+            if (!verifier.verify(signature)) {
+                return Verdict.invalid("invalid signature");
+            }
+        } catch (GeneralSecurityException e) {
+            return Verdict.invalid("invalid signature");
+        }
+
+        String issuer = payload.optString("iss");
+        if (!"accounts.google.com".equals(issuer) && !"https://accounts.google.com".equals(issuer)) {
+            return Verdict.invalid("wrong issuer");
+        }
+        if (!hasAudience(payload, audience)) {
+            return Verdict.invalid("wrong audience");
+        }
+        if (hostedDomain != null && !hostedDomain.isEmpty() && !hostedDomain.equals(payload.optString("hd"))) {
+            return Verdict.invalid("wrong hosted domain");
+        }
+        long expiresAt = payload.optLong("exp") * 1000;
+        if (System.currentTimeMillis() >= expiresAt + CLOCK_SKEW_MS) {
+            return Verdict.invalid("expired");
+        }
+        return Verdict.valid(expiresAt);
+    }
+
+    private static boolean hasAudience(JSONObject payload, String audience) {
+        JSONArray audiences = payload.optJSONArray("aud");
+        if (audiences == null) {
+            return audience.equals(payload.optString("aud"));
+        }
+        for (int i = 0; i < audiences.length(); i++) {
+            if (audience.equals(audiences.optString(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
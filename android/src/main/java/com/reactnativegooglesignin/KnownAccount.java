@@ -0,0 +1,92 @@
+package com.reactnativegooglesignin;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An account the user has signed in with at some point, together with the token state
+ * that belongs to it. Each account settles its own getTokens promise so that token
+ * retrieval for different accounts can run in parallel.
+ */
+public class KnownAccount {
+    private final String email;
+    private final List<String> scopes;
+    private final PromiseWrapper promiseWrapper = new PromiseWrapper();
+    private final Object fetchLock = new Object();
+
+    private String accessToken;
+    private long accessTokenObtainedAt;
+
+    public KnownAccount(@NonNull String email, @NonNull List<String> scopes) {
+        this.email = email;
+        this.scopes = new ArrayList<>(scopes);
+    }
+
+    @NonNull
+    public String getEmail() {
+        return email;
+    }
+
+    @NonNull
+    public synchronized List<String> getScopes() {
+        return new ArrayList<>(scopes);
+    }
+
+    synchronized void setScopes(@NonNull List<String> scopes) {
+        this.scopes.clear();
+        this.scopes.addAll(scopes);
+    }
+
+    public PromiseWrapper getPromiseWrapper() {
+        return promiseWrapper;
+    }
+
+    /**
+     * Held by TokenProvider while a token is being fetched, so that concurrent native callers
+     * for the same account wait for one fetch instead of each starting their own.
+     */
+    Object getFetchLock() {
+        return fetchLock;
+    }
+
+    @Nullable
+    public synchronized String getAccessToken() {
+        return accessToken;
+    }
+
+    public synchronized long getAccessTokenObtainedAt() {
+        return accessTokenObtainedAt;
+    }
+
+    synchronized void setAccessToken(@Nullable String accessToken, long obtainedAt) {
+        this.accessToken = accessToken;
+        this.accessTokenObtainedAt = obtainedAt;
+    }
+
+    /**
+     * Builds the same shape that Utils.getUserProperties produces, so that the account can be
+     * passed to AccessTokenRetrievalTask. Only the fields needed for token retrieval are set.
+     */
+    WritableMap toUserProperties() {
+        WritableMap user = Arguments.createMap();
+        user.putString("email", email);
+
+        WritableArray scopesArray = Arguments.createArray();
+        for (String scope : getScopes()) {
+            scopesArray.pushString(scope);
+        }
+
+        WritableMap params = Arguments.createMap();
+        params.putMap("user", user);
+        params.putNull("idToken");
+        params.putArray("scopes", scopesArray);
+        return params;
+    }
+}
@@ -0,0 +1,176 @@
+package com.reactnativegooglesignin;
+
+import static com.reactnativegooglesignin.RNGoogleSigninModule.MODULE_NAME;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The small set of accounts that were signed in on this device, most recently used last.
+ * Emails and scopes are persisted so that tokens can be fetched for any of them after a restart
+ * without going through the sign-in UI again. Tokens themselves are kept in memory only.
+ */
+public class KnownAccounts {
+    static final int MAX_KNOWN_ACCOUNTS = 5;
+
+    private static final String PREFS_NAME = "RNGoogleSigninKnownAccounts";
+    private static final String PREFS_KEY = "accounts";
+
+    private final Context context;
+    private Map<String, KnownAccount> accounts;
+
+    public KnownAccounts(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Nullable
+    public synchronized KnownAccount get(@NonNull String email) {
+        return getAccounts().get(email);
+    }
+
+    @NonNull
+    public KnownAccount remember(@NonNull String email, @NonNull ReadableArray scopes) {
+        List<String> scopeList = new ArrayList<>();
+        for (int i = 0; i < scopes.size(); i++) {
+            scopeList.add(scopes.getString(i));
+        }
+        return remember(email, scopeList);
+    }
+
+    @NonNull
+    public synchronized KnownAccount remember(@NonNull String email, @NonNull List<String> scopeList) {
+        Map<String, KnownAccount> accounts = getAccounts();
+        KnownAccount account = accounts.get(email);
+        if (account != null && isMostRecent(email) && account.getScopes().equals(scopeList)) {
+            // nothing changed, e.g. getTokens() for the same account again; don't rewrite the preferences
+            return account;
+        }
+        accounts.remove(email);
+        if (account == null) {
+            account = new KnownAccount(email, scopeList);
+        } else {
+            account.setScopes(scopeList);
+        }
+        accounts.put(email, account);
+
+        Iterator<String> eldest = accounts.keySet().iterator();
+        while (accounts.size() > MAX_KNOWN_ACCOUNTS) {
+            eldest.next();
+            eldest.remove();
+        }
+        persist();
+        return account;
+    }
+
+    /**
+     * Removes the account and its cached token.
+     */
+    public synchronized void forget(@NonNull String email) {
+        KnownAccount account = getAccounts().remove(email);
+        if (account != null) {
+            // a TokenProvider call in flight may still hold the account, it must not hand out the token
+            account.setAccessToken(null, 0);
+            persist();
+        }
+    }
+
+    public synchronized void updateAccessToken(@NonNull String email, @Nullable String accessToken) {
+        KnownAccount account = getAccounts().get(email);
+        if (account != null) {
+            account.setAccessToken(accessToken, System.currentTimeMillis());
+        }
+    }
+
+    @Nullable
+    public synchronized KnownAccount findByAccessToken(@NonNull String accessToken) {
+        for (KnownAccount account : getAccounts().values()) {
+            if (accessToken.equals(account.getAccessToken())) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void clearAccessToken(@NonNull String accessToken) {
+        for (KnownAccount account : getAccounts().values()) {
+            if (accessToken.equals(account.getAccessToken())) {
+                account.setAccessToken(null, 0);
+            }
+        }
+    }
+
+    private boolean isMostRecent(String email) {
+        String mostRecent = null;
+        for (String key : accounts.keySet()) {
+            mostRecent = key;
+        }
+        return email.equals(mostRecent);
+    }
+
+    private Map<String, KnownAccount> getAccounts() {
+        if (accounts == null) {
+            accounts = load();
+        }
+        return accounts;
+    }
+
+    private Map<String, KnownAccount> load() {
+        Map<String, KnownAccount> result = new LinkedHashMap<>();
+        String json = getPreferences().getString(PREFS_KEY, null);
+        if (json == null) {
+            return result;
+        }
+        try {
+            JSONArray array = new JSONArray(json);
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject entry = array.getJSONObject(i);
+                JSONArray scopesJson = entry.getJSONArray("scopes");
+                List<String> scopes = new ArrayList<>();
+                for (int j = 0; j < scopesJson.length(); j++) {
+                    scopes.add(scopesJson.getString(j));
+                }
+                String email = entry.getString("email");
+                result.put(email, new KnownAccount(email, scopes));
+            }
+        } catch (JSONException e) {
+            Log.w(MODULE_NAME, "could not read known accounts, starting with an empty set", e);
+        }
+        return result;
+    }
+
+    private void persist() {
+        JSONArray array = new JSONArray();
+        try {
+            for (KnownAccount account : accounts.values()) {
+                JSONObject entry = new JSONObject();
+                entry.put("email", account.getEmail());
+                entry.put("scopes", new JSONArray(account.getScopes()));
+                array.put(entry);
+            }
+        } catch (JSONException e) {
+            Log.w(MODULE_NAME, "could not persist known accounts", e);
+            return;
+        }
+        getPreferences().edit().putString(PREFS_KEY, array.toString()).apply();
+    }
+
+    private SharedPreferences getPreferences() {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,69 @@
+package com.reactnativegooglesignin;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How much main-thread time each operation (signIn, oneTap, ...) has used since the module was created.
+ */
+public class MainThreadMetrics {
+    private static class Entry {
+        int count;
+        long totalNanos;
+        long maxNanos;
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Wraps a runnable so that the time it takes to run is recorded for the operation.
+     */
+    @NonNull
+    Runnable measure(@NonNull final String operation, @NonNull final Runnable runnable) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                long start = SystemClock.elapsedRealtimeNanos();
+                try {
+                    runnable.run();
+                } finally {
+                    record(operation, SystemClock.elapsedRealtimeNanos() - start);
+                }
+            }
+        };
+    }
+
+    synchronized void record(@NonNull String operation, long nanos) {
+        Entry entry = entries.get(operation);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(operation, entry);
+        }
+        entry.count++;
+        entry.totalNanos += nanos;
+        entry.maxNanos = Math.max(entry.maxNanos, nanos);
+    }
+
+    /**
+     * @return {@code {[operation]: {count, totalMs, maxMs}}}
+     */
+    @NonNull
+    public synchronized WritableMap toWritableMap() {
+        WritableMap result = Arguments.createMap();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            WritableMap metric = Arguments.createMap();
+            metric.putInt("count", e.getValue().count);
+            metric.putDouble("totalMs", e.getValue().totalNanos / 1e6);
+            metric.putDouble("maxMs", e.getValue().maxNanos / 1e6);
+            result.putMap(e.getKey(), metric);
+        }
+        return result;
+    }
+}
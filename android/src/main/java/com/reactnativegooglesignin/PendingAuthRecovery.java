@@ -4,12 +4,18 @@ import com.facebook.react.bridge.WritableMap;
 
 public class PendingAuthRecovery {
     private WritableMap userProperties;
+    private PromiseWrapper promiseWrapper;
 
-    public PendingAuthRecovery(WritableMap userProperties) {
+    public PendingAuthRecovery(WritableMap userProperties, PromiseWrapper promiseWrapper) {
         this.userProperties = userProperties;
+        this.promiseWrapper = promiseWrapper;
     }
 
     public WritableMap getUserProperties() {
         return userProperties;
     }
+
+    public PromiseWrapper getPromiseWrapper() {
+        return promiseWrapper;
+    }
 }
@@ -0,0 +1,140 @@
+package com.reactnativegooglesignin;
+
+import android.accounts.Account;
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.auth.GoogleAuthException;
+import com.google.android.gms.auth.GoogleAuthUtil;
+import com.google.android.gms.auth.api.identity.BeginSignInRequest;
+import com.google.android.gms.auth.api.identity.BeginSignInResult;
+import com.google.android.gms.auth.api.identity.Identity;
+import com.google.android.gms.auth.api.identity.SignInClient;
+import com.google.android.gms.auth.api.identity.SignInCredential;
+import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.android.gms.auth.api.signin.GoogleSignInClient;
+import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
+import com.google.android.gms.common.GoogleApiAvailability;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.Scope;
+import com.google.android.gms.tasks.Task;
+
+import java.io.IOException;
+
+public class PlayServicesAuthBackend implements AuthBackend {
+    private GoogleSignInClient client;
+    private GoogleSignInOptions clientOptions;
+    private SignInClient oneTapClient;
+
+    /**
+     * The client is reused for as long as configure() isn't called with new options.
+     */
+    private synchronized GoogleSignInClient getClient(Context context, GoogleSignInOptions options) {
+        if (client == null || clientOptions != options) {
+            client = GoogleSignIn.getClient(context, options);
+            clientOptions = options;
+        }
+        return client;
+    }
+
+    private synchronized SignInClient getOneTapClient(Context context) {
+        if (oneTapClient == null) {
+            oneTapClient = Identity.getSignInClient(context);
+        }
+        return oneTapClient;
+    }
+
+    @NonNull
+    @Override
+    public Task<GoogleSignInAccount> silentSignIn(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return getClient(context, options).silentSignIn();
+    }
+
+    @NonNull
+    @Override
+    public Intent getSignInIntent(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return getClient(context, options).getSignInIntent();
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> signOut(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return getClient(context, options).signOut();
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> revokeAccess(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return getClient(context, options).revokeAccess();
+    }
+
+    @Nullable
+    @Override
+    public GoogleSignInAccount getLastSignedInAccount(@NonNull Context context) {
+        return GoogleSignIn.getLastSignedInAccount(context);
+    }
+
+    @NonNull
+    @Override
+    public Task<GoogleSignInAccount> getSignedInAccountFromIntent(@Nullable Intent data) {
+        return GoogleSignIn.getSignedInAccountFromIntent(data);
+    }
+
+    @Override
+    public void requestPermissions(@NonNull Activity activity, int requestCode, @NonNull GoogleSignInAccount account, @NonNull Scope... scopes) {
+        GoogleSignIn.requestPermissions(activity, requestCode, account, scopes);
+    }
+
+    @NonNull
+    @Override
+    public Task<BeginSignInResult> beginOneTapSignIn(@NonNull Context context, @NonNull BeginSignInRequest request) {
+        return getOneTapClient(context).beginSignIn(request);
+    }
+
+    @NonNull
+    @Override
+    public SignInCredential getOneTapCredentialFromIntent(@NonNull Context context, @Nullable Intent data) throws ApiException {
+        return getOneTapClient(context).getSignInCredentialFromIntent(data);
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> signOutOneTap(@NonNull Context context) {
+        return getOneTapClient(context).signOut();
+    }
+
+    @NonNull
+    @Override
+    public String getToken(@NonNull Context context, @NonNull Account account, @NonNull String scope) throws IOException, GoogleAuthException {
+        return GoogleAuthUtil.getToken(context, account, scope);
+    }
+
+    @Override
+    public void clearToken(@NonNull Context context, @NonNull String token) throws IOException, GoogleAuthException {
+        GoogleAuthUtil.clearToken(context, token);
+    }
+
+    @Override
+    public int isGooglePlayServicesAvailable(@NonNull Context context) {
+        return GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(context);
+    }
+
+    @Override
+    public boolean isUserResolvableError(int status) {
+        return GoogleApiAvailability.getInstance().isUserResolvableError(status);
+    }
+
+    @Override
+    public void showErrorDialog(@NonNull Activity activity, int status, int requestCode) {
+        Dialog dialog = GoogleApiAvailability.getInstance().getErrorDialog(activity, status, requestCode);
+        if (dialog != null) {
+            dialog.show();
+        }
+    }
+}
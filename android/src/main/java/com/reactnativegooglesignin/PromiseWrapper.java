@@ -10,18 +10,28 @@ import com.facebook.react.bridge.Promise;
 public class PromiseWrapper {
     private Promise promise;
     private String nameOfCallInProgress;
+    private SigninTrace trace = SigninTrace.NONE;
     public static final String ASYNC_OP_IN_PROGRESS = "ASYNC_OP_IN_PROGRESS";
 
 
-    public void setPromiseWithInProgressCheck(Promise promise, String fromCallsite) {
+    public synchronized void setPromiseWithInProgressCheck(Promise promise, String fromCallsite) {
         if (this.promise != null) {
             rejectPreviousPromiseBecauseNewOneIsInProgress(this.promise, fromCallsite);
+            trace.end();
         }
         this.promise = promise;
         nameOfCallInProgress = fromCallsite;
+        trace = SigninTrace.begin(fromCallsite);
     }
 
-    public void resolve(Object value) {
+    /**
+     * @return the trace of the call in progress; it ends when the promise settles
+     */
+    public synchronized SigninTrace getTrace() {
+        return trace;
+    }
+
+    public synchronized void resolve(Object value) {
         Promise resolver = promise;
         if (resolver == null) {
             Log.w(MODULE_NAME, "cannot resolve promise because it's null");
@@ -32,7 +42,7 @@ public class PromiseWrapper {
         resolver.resolve(value);
     }
 
-    public void reject(String code, Throwable throwable) {
+    public synchronized void reject(String code, Throwable throwable) {
         Promise rejecter = promise;
         if (rejecter == null) {
             Log.w(MODULE_NAME, "cannot reject promise because it's null");
@@ -43,7 +53,7 @@ public class PromiseWrapper {
         rejecter.reject(code, throwable.getLocalizedMessage(), throwable);
     }
 
-    public void reject(String code, String message) {
+    public synchronized void reject(String code, String message) {
         Promise rejecter = promise;
         if (rejecter == null) {
             Log.w(MODULE_NAME, "cannot reject promise because it's null");
@@ -54,13 +64,15 @@ public class PromiseWrapper {
         rejecter.reject(code, message);
     }
 
-    public String getNameOfCallInProgress(){
+    public synchronized String getNameOfCallInProgress(){
         return nameOfCallInProgress;
     }
 
     private void resetMembers() {
         promise = null;
         nameOfCallInProgress = null;
+        trace.end();
+        trace = SigninTrace.NONE;
     }
 
     private void rejectPreviousPromiseBecauseNewOneIsInProgress(Promise promise, String requestedOperation) {
@@ -11,6 +11,7 @@ import static com.reactnativegooglesignin.Utils.scopesToString;
 import android.accounts.Account;
 import android.app.Activity;
 import android.app.PendingIntent;
+import android.content.ActivityNotFoundException;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.os.AsyncTask;
@@ -31,21 +32,15 @@ import com.facebook.react.bridge.UiThreadUtil;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
 import com.google.android.gms.auth.GoogleAuthException;
-import com.google.android.gms.auth.GoogleAuthUtil;
 import com.google.android.gms.auth.UserRecoverableAuthException;
 import com.google.android.gms.auth.api.identity.BeginSignInRequest;
 import com.google.android.gms.auth.api.identity.BeginSignInRequest.GoogleIdTokenRequestOptions;
 import com.google.android.gms.auth.api.identity.BeginSignInResult;
-import com.google.android.gms.auth.api.identity.Identity;
-import com.google.android.gms.auth.api.identity.SignInClient;
 import com.google.android.gms.auth.api.identity.SignInCredential;
-import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
-import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.auth.api.signin.GoogleSignInStatusCodes;
 import com.google.android.gms.common.ConnectionResult;
-import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.android.gms.common.SignInButton;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.common.api.CommonStatusCodes;
@@ -55,17 +50,18 @@ import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 @ReactModule(name = RNGoogleSigninModule.MODULE_NAME)
 public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
-    private GoogleSignInClient _apiClient;
-
-    private SignInClient _oneTapClient;
+    private GoogleSignInOptions signInOptions;
 
     private BeginSignInRequest signInRequest;
 
@@ -81,30 +77,114 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
     public static final String ERROR_USER_RECOVERABLE_AUTH = "ERROR_USER_RECOVERABLE_AUTH";
     private static final String SHOULD_RECOVER = "SHOULD_RECOVER";
 
-    private boolean oneTapSignedIn;
+    private volatile boolean oneTapSignedIn;
 
     private PendingAuthRecovery pendingAuthRecovery;
 
     private PromiseWrapper promiseWrapper;
 
+    private KnownAccounts knownAccounts;
+
+    private String webClientId;
+
+    private String hostedDomain;
+
+    private IdTokenVerifier idTokenVerifier;
+
+    private TokenProvider tokenProvider;
+
+    private ServerAuthCodeDelivery serverAuthCodeDelivery;
+
+    // runs sign-in work that doesn't need the main thread; single-threaded so that results are handled in order
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor();
+
+    private final MainThreadMetrics mainThreadMetrics = new MainThreadMetrics();
+
+    private AuthBackend authBackend;
+
+    private final RNGoogleSigninActivityEventListener activityEventListener = new RNGoogleSigninActivityEventListener();
+
+    private int pendingActivityResults;
+
+    /**
+     * Created on first use, so a module that is never used for sign-in doesn't create it.
+     */
+    public synchronized AuthBackend getAuthBackend() {
+        if (authBackend == null) {
+            authBackend = new PlayServicesAuthBackend();
+        }
+        return authBackend;
+    }
+
     public PromiseWrapper getPromiseWrapper() {
         return promiseWrapper;
     }
 
+    public KnownAccounts getKnownAccounts() {
+        return knownAccounts;
+    }
+
+    /**
+     * Gives native code (e.g. OkHttp interceptors) access to access tokens without a round trip through JS.
+     */
+    public synchronized TokenProvider getTokenProvider() {
+        if (tokenProvider == null) {
+            tokenProvider = new TokenProvider(getReactApplicationContext(), knownAccounts, getAuthBackend());
+        }
+        return tokenProvider;
+    }
+
     @Override
     public String getName() {
         return MODULE_NAME;
     }
 
     public RNGoogleSigninModule(final ReactApplicationContext reactContext) {
+        this(reactContext, null);
+    }
+
+    /**
+     * @param authBackend null to use {@link PlayServicesAuthBackend}
+     */
+    public RNGoogleSigninModule(final ReactApplicationContext reactContext, @Nullable final AuthBackend authBackend) {
         super(reactContext);
+        this.authBackend = authBackend;
         promiseWrapper = new PromiseWrapper();
-        reactContext.addActivityEventListener(new RNGoogleSigninActivityEventListener());
+        knownAccounts = new KnownAccounts(reactContext);
+    }
+
+    /**
+     * Call right before starting an activity whose result the module handles. The listener stays registered
+     * only while such results are outstanding, so other activity results in the app don't go through it.
+     */
+    private synchronized void expectActivityResult() {
+        if (pendingActivityResults == 0) {
+            getReactApplicationContext().addActivityEventListener(activityEventListener);
+        }
+        pendingActivityResults++;
+    }
+
+    private synchronized void onActivityResultHandled() {
+        if (pendingActivityResults == 0) {
+            return;
+        }
+        pendingActivityResults--;
+        if (pendingActivityResults == 0) {
+            getReactApplicationContext().removeActivityEventListener(activityEventListener);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        // a new module instance is created on reload, this one's thread would otherwise live on
+        backgroundExecutor.shutdown();
     }
 
     @Override
     public Map<String, Object> getConstants() {
         final Map<String, Object> constants = new HashMap<>();
+        // all of these are compile-time constants inlined by javac, so they don't load Play Services classes
         constants.put("BUTTON_SIZE_ICON", SignInButton.SIZE_ICON_ONLY);
         constants.put("BUTTON_SIZE_STANDARD", SignInButton.SIZE_STANDARD);
         constants.put("BUTTON_SIZE_WIDE", SignInButton.SIZE_WIDE);
@@ -128,13 +208,12 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
             return;
         }
 
-        GoogleApiAvailability googleApiAvailability = GoogleApiAvailability.getInstance();
-        int status = googleApiAvailability.isGooglePlayServicesAvailable(activity);
+        int status = getAuthBackend().isGooglePlayServicesAvailable(activity);
 
         if (status != ConnectionResult.SUCCESS) {
-            if (showPlayServicesUpdateDialog && googleApiAvailability.isUserResolvableError(status)) {
+            if (showPlayServicesUpdateDialog && getAuthBackend().isUserResolvableError(status)) {
                 int requestCode = 2404;
-                googleApiAvailability.getErrorDialog(activity, status, requestCode).show();
+                getAuthBackend().showErrorDialog(activity, status, requestCode);
             }
             promise.reject(PLAY_SERVICES_NOT_AVAILABLE, "Play services not available");
         } else {
@@ -157,19 +236,45 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         final boolean forceCodeForRefreshToken = config.hasKey("forceCodeForRefreshToken") && config.getBoolean("forceCodeForRefreshToken");
         final String accountName = config.hasKey("accountName") ? config.getString("accountName") : null;
         final String hostedDomain = config.hasKey("hostedDomain") ? config.getString("hostedDomain") : null;
+        final String serverAuthCodeEndpoint = config.hasKey("serverAuthCodeEndpoint") ? config.getString("serverAuthCodeEndpoint") : null;
 
-        GoogleSignInOptions options = getSignInOptions(createScopesArray(scopes), webClientId, offlineAccess, forceCodeForRefreshToken, accountName, hostedDomain);
-        _apiClient = GoogleSignIn.getClient(getReactApplicationContext(), options);
+        final GoogleSignInOptions options = getSignInOptions(createScopesArray(scopes), webClientId, offlineAccess, forceCodeForRefreshToken, accountName, hostedDomain);
+        this.webClientId = webClientId;
+        this.hostedDomain = hostedDomain;
+        signInOptions = options;
+        configureServerAuthCodeDelivery(serverAuthCodeEndpoint);
         promise.resolve(null);
     }
 
+    private synchronized void configureServerAuthCodeDelivery(@Nullable String endpoint) {
+        if (endpoint == null && serverAuthCodeDelivery == null) {
+            return;
+        }
+        if (serverAuthCodeDelivery == null) {
+            File directory = new File(getReactApplicationContext().getFilesDir(), MODULE_NAME);
+            serverAuthCodeDelivery = ServerAuthCodeDelivery.getInstance(directory);
+        }
+        serverAuthCodeDelivery.setEndpoint(endpoint);
+    }
+
+    private void enqueueServerAuthCode(GoogleSignInAccount account) {
+        ServerAuthCodeDelivery delivery;
+        synchronized (this) {
+            delivery = serverAuthCodeDelivery;
+        }
+        String serverAuthCode = account.getServerAuthCode();
+        if (serverAuthCode != null && delivery != null) {
+            // writes to disk, so it must not hold the module lock that the main thread takes
+            delivery.enqueue(serverAuthCode, account.getId(), account.getEmail());
+        }
+    }
+
     @ReactMethod
     public void configureOneTap(final ReadableMap config, final Promise promise) {
       final String webClientId = config.hasKey("webClientId") ? config.getString("webClientId") : null;
       final boolean filterByAuthorizedAccounts = config.hasKey("filterByAuthorizedAccounts") ? config.getBoolean("filterByAuthorizedAccounts") : true;
       final boolean autoSelect = config.hasKey("autoSelectEnabled") ? config.getBoolean("autoSelectEnabled") : true;
 
-      _oneTapClient = Identity.getSignInClient(getReactApplicationContext());
       signInRequest = BeginSignInRequest.builder()
         .setGoogleIdTokenRequestOptions(
          getIdTokenRequestOptions(webClientId, filterByAuthorizedAccounts)
@@ -193,7 +298,7 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
     }
 
     private void handleOneTapRequest(Promise promise, int code) {
-      if (_oneTapClient == null) {
+      if (signInRequest == null) {
         rejectWithNullClientError(promise);
         return;
       }
@@ -203,35 +308,70 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         rejectWithNullActivity(promise);
         return;
       }
-      UiThreadUtil.runOnUiThread(() -> _oneTapClient.beginSignIn(signInRequest).addOnSuccessListener(activity, result -> {
-        try {
-          activity.startIntentSenderForResult(
-            result.getPendingIntent().getIntentSender(), code, null, 0,0,0);
-        } catch (IntentSender.SendIntentException e) {
-          Log.e(MODULE_NAME, "Couldn't start One Tap UI: " + e.getLocalizedMessage());
-        }
-      })
-        .addOnFailureListener(activity, e -> Log.d(MODULE_NAME, "One Tap UI: Failure: " + e.getLocalizedMessage())));
+      final SigninTrace trace = promiseWrapper.getTrace();
+      trace.beginStage("executorHop");
+      backgroundExecutor.execute(() -> {
+        trace.endStage("executorHop");
+        trace.beginStage("beginSignIn");
+        getAuthBackend().beginOneTapSignIn(getReactApplicationContext(), signInRequest).addOnSuccessListener(backgroundExecutor, result -> {
+          trace.endStage("beginSignIn");
+          trace.beginStage("uiThreadHop");
+          // only launching the intent needs the main thread
+          runOnUiThread("oneTap", () -> {
+            trace.endStage("uiThreadHop");
+            if (isFinishingOrDestroyed(activity)) {
+              rejectWithFinishingActivity(promiseWrapper);
+              return;
+            }
+            try {
+              expectActivityResult();
+              trace.beginStage("activity");
+              activity.startIntentSenderForResult(
+                result.getPendingIntent().getIntentSender(), code, null, 0,0,0);
+            } catch (IntentSender.SendIntentException e) {
+              Log.e(MODULE_NAME, "Couldn't start One Tap UI: " + e.getLocalizedMessage());
+              rejectFailedLaunch(promiseWrapper, "activity", e);
+            }
+          });
+        })
+          .addOnFailureListener(backgroundExecutor, e -> {
+            trace.endStage("beginSignIn");
+            Log.d(MODULE_NAME, "One Tap UI: Failure: " + e.getLocalizedMessage());
+            if (e instanceof ApiException) {
+              int statusCode = ((ApiException) e).getStatusCode();
+              promiseWrapper.reject(String.valueOf(statusCode), GoogleSignInStatusCodes.getStatusCodeString(statusCode));
+            } else {
+              promiseWrapper.reject(MODULE_NAME, e);
+            }
+          });
+      });
     }
 
     @ReactMethod
     public void signInSilently(Promise promise) {
-        if (_apiClient == null) {
+        if (signInOptions == null) {
             rejectWithNullClientError(promise);
             return;
         }
         promiseWrapper.setPromiseWithInProgressCheck(promise, "signInSilently");
-        UiThreadUtil.runOnUiThread(new Runnable() {
+        final SigninTrace trace = promiseWrapper.getTrace();
+        trace.beginStage("executorHop");
+        // nothing here needs the main thread, the listener and result conversion run on the background executor too
+        backgroundExecutor.execute(new Runnable() {
             @Override
             public void run() {
-                Task<GoogleSignInAccount> result = _apiClient.silentSignIn();
+                trace.endStage("executorHop");
+                trace.beginStage("silentSignIn");
+                Task<GoogleSignInAccount> result = getAuthBackend().silentSignIn(getReactApplicationContext(), signInOptions);
                 if (result.isSuccessful()) {
                     // There's immediate result available.
+                    trace.endStage("silentSignIn");
                     handleSignInTaskResult(result);
                 } else {
-                    result.addOnCompleteListener(new OnCompleteListener() {
+                    result.addOnCompleteListener(backgroundExecutor, new OnCompleteListener() {
                         @Override
                         public void onComplete(@NonNull Task task) {
+                            trace.endStage("silentSignIn");
                             handleSignInTaskResult(task);
                         }
                     });
@@ -246,7 +386,16 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
             if (account == null) {
                 promiseWrapper.reject(MODULE_NAME, "GoogleSignInAccount instance was null");
             } else {
-                WritableMap userParams = getUserProperties(account);
+                SigninTrace trace = promiseWrapper.getTrace();
+                WritableMap userParams;
+                trace.beginSection("getUserProperties");
+                try {
+                    userParams = getUserProperties(account);
+                    rememberAccount(account, userParams);
+                } finally {
+                    trace.endSection();
+                }
+                enqueueServerAuthCode(account);
                 promiseWrapper.resolve(userParams);
             }
         } catch (ApiException e) {
@@ -256,14 +405,28 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         }
     }
 
+    private void rememberAccount(GoogleSignInAccount account, WritableMap userParams) {
+        String email = account.getEmail();
+        if (email != null) {
+            knownAccounts.remember(email, userParams.getArray("scopes"));
+        }
+    }
+
     private void handleOneTapSignInResult(SignInCredential credential) {
-      WritableMap userParams = getUserProperties(credential);
+      SigninTrace trace = promiseWrapper.getTrace();
+      WritableMap userParams;
+      trace.beginSection("getUserProperties");
+      try {
+        userParams = getUserProperties(credential);
+      } finally {
+        trace.endSection();
+      }
       promiseWrapper.resolve(userParams);
     }
 
     @ReactMethod
     public void signIn(final ReadableMap config, Promise promise) {
-        if (_apiClient == null) {
+        if (signInOptions == null) {
             rejectWithNullClientError(promise);
             return;
         }
@@ -275,15 +438,69 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
             return;
         }
         promiseWrapper.setPromiseWithInProgressCheck(promise, "signIn");
-        UiThreadUtil.runOnUiThread(new Runnable() {
+        final SigninTrace trace = promiseWrapper.getTrace();
+        trace.beginStage("executorHop");
+        backgroundExecutor.execute(new Runnable() {
             @Override
             public void run() {
-                Intent signInIntent = _apiClient.getSignInIntent();
-                activity.startActivityForResult(signInIntent, RC_SIGN_IN);
+                trace.endStage("executorHop");
+                final Intent signInIntent;
+                trace.beginSection("getSignInIntent");
+                try {
+                    signInIntent = getAuthBackend().getSignInIntent(getReactApplicationContext(), signInOptions);
+                } finally {
+                    trace.endSection();
+                }
+                trace.beginStage("uiThreadHop");
+                runOnUiThread("signIn", new Runnable() {
+                    @Override
+                    public void run() {
+                        trace.endStage("uiThreadHop");
+                        if (isFinishingOrDestroyed(activity)) {
+                            rejectWithFinishingActivity(promiseWrapper);
+                            return;
+                        }
+                        expectActivityResult();
+                        trace.beginStage("activity");
+                        try {
+                            activity.startActivityForResult(signInIntent, RC_SIGN_IN);
+                        } catch (ActivityNotFoundException e) {
+                            rejectFailedLaunch(promiseWrapper, "activity", e);
+                        }
+                    }
+                });
             }
         });
     }
 
+    /**
+     * The activity is captured before the hop to the background executor and may be gone by the time
+     * the intent is ready, e.g. after the user navigated back or on a configuration change.
+     */
+    private static boolean isFinishingOrDestroyed(Activity activity) {
+        return activity.isFinishing() || activity.isDestroyed();
+    }
+
+    private static void rejectWithFinishingActivity(PromiseWrapper wrapper) {
+        wrapper.reject(MODULE_NAME, "activity was finishing or destroyed before sign-in could start");
+    }
+
+    private void runOnUiThread(String operation, Runnable runnable) {
+        UiThreadUtil.runOnUiThread(mainThreadMetrics.measure(operation, runnable));
+    }
+
+    /**
+     * Main-thread time spent per operation, for finding out whether sign-in competes with the app's UI work.
+     */
+    public MainThreadMetrics getMainThreadMetrics() {
+        return mainThreadMetrics;
+    }
+
+    @ReactMethod
+    public void getMainThreadMetrics(Promise promise) {
+        promise.resolve(mainThreadMetrics.toWritableMap());
+    }
+
     @ReactMethod
     public void addScopes(final ReadableMap config, Promise promise) {
       final Activity activity = getCurrentActivity();
@@ -291,7 +508,7 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         rejectWithNullActivity(promise);
         return;
       }
-      GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(getReactApplicationContext());
+      GoogleSignInAccount account = getAuthBackend().getLastSignedInAccount(getReactApplicationContext());
       if (account == null) {
         promise.resolve(false);
         return;
@@ -304,76 +521,164 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         scopeArr[i] = new Scope(scopes.getString(i));
       }
 
-      GoogleSignIn.requestPermissions(
-        activity, REQUEST_CODE_ADD_SCOPES, account, scopeArr);
+      expectActivityResult();
+      promiseWrapper.getTrace().beginStage("activity");
+      try {
+        getAuthBackend().requestPermissions(
+          activity, REQUEST_CODE_ADD_SCOPES, account, scopeArr);
+      } catch (ActivityNotFoundException e) {
+        rejectFailedLaunch(promiseWrapper, "activity", e);
+      }
+    }
+
+    /**
+     * The activity result will never arrive, so undo {@link #expectActivityResult()} and settle the promise.
+     */
+    private void rejectFailedLaunch(PromiseWrapper wrapper, String stage, Exception e) {
+        wrapper.getTrace().endStage(stage);
+        onActivityResultHandled();
+        wrapper.reject(MODULE_NAME, e);
     }
 
     private class RNGoogleSigninActivityEventListener extends BaseActivityEventListener {
         @Override
         public void onActivityResult(Activity activity, final int requestCode, final int resultCode, final Intent intent) {
+            String operation = getOperationForRequestCode(requestCode);
+            if (operation == null) {
+                return;
+            }
+            onActivityResultHandled();
+            mainThreadMetrics.measure(operation, new Runnable() {
+                @Override
+                public void run() {
+                    handleActivityResult(requestCode, resultCode, intent);
+                }
+            }).run();
+        }
+
+        @Nullable
+        private String getOperationForRequestCode(int requestCode) {
+            switch (requestCode) {
+                case RC_SIGN_IN:
+                    return "signIn";
+                case REQUEST_CODE_RECOVER_AUTH:
+                    return "getTokens";
+                case REQUEST_CODE_ADD_SCOPES:
+                    return "addScopes";
+                case ONE_TAP_SIGN_IN_SUCCESS:
+                    return "oneTap";
+                default:
+                    return null;
+            }
+        }
+
+        private void handleActivityResult(final int requestCode, final int resultCode, final Intent intent) {
             if (requestCode == RC_SIGN_IN) {
-                // The Task returned from this call is always completed, no need to attach a listener.
-                Task<GoogleSignInAccount> task = GoogleSignIn.getSignedInAccountFromIntent(intent);
-                handleSignInTaskResult(task);
+                promiseWrapper.getTrace().endStage("activity");
+                backgroundExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // The Task returned from this call is always completed, no need to attach a listener.
+                        Task<GoogleSignInAccount> task = getAuthBackend().getSignedInAccountFromIntent(intent);
+                        handleSignInTaskResult(task);
+                    }
+                });
             } else if (requestCode == REQUEST_CODE_RECOVER_AUTH) {
                 if (resultCode == Activity.RESULT_OK) {
                     rerunFailedAuthTokenTask();
                 } else {
-                    promiseWrapper.reject(MODULE_NAME, "Failed authentication recovery attempt, probably user-rejected.");
+                    PendingAuthRecovery recovery = takePendingAuthRecovery();
+                    PromiseWrapper wrapper = recovery != null ? recovery.getPromiseWrapper() : promiseWrapper;
+                    wrapper.getTrace().endStage("recovery");
+                    wrapper.reject(MODULE_NAME, "Failed authentication recovery attempt, probably user-rejected.");
                 }
             } else if (requestCode == REQUEST_CODE_ADD_SCOPES) {
+                promiseWrapper.getTrace().endStage("activity");
                 if (resultCode == Activity.RESULT_OK) {
                   promiseWrapper.resolve(true);
                 } else {
                   promiseWrapper.reject(MODULE_NAME, "Failed to add scopes.");
                 }
             } else if (requestCode == ONE_TAP_SIGN_IN_SUCCESS) {
-              try {
-                SignInCredential credential = _oneTapClient.getSignInCredentialFromIntent(intent);
-                oneTapSignedIn = true;
-                handleOneTapSignInResult(credential);
-
-              } catch (ApiException e) {
-                Log.d(MODULE_NAME, "One Tap Failure: " + e.getLocalizedMessage());
-                promiseWrapper.reject(MODULE_NAME, "Failed to retrieve a credential");
-              }
+              promiseWrapper.getTrace().endStage("activity");
+              backgroundExecutor.execute(() -> {
+                try {
+                  SignInCredential credential = getAuthBackend().getOneTapCredentialFromIntent(getReactApplicationContext(), intent);
+                  oneTapSignedIn = true;
+                  handleOneTapSignInResult(credential);
+
+                } catch (ApiException e) {
+                  Log.d(MODULE_NAME, "One Tap Failure: " + e.getLocalizedMessage());
+                  promiseWrapper.reject(MODULE_NAME, "Failed to retrieve a credential");
+                }
+              });
             }
         }
     }
 
     private void rerunFailedAuthTokenTask() {
-        WritableMap userProperties = pendingAuthRecovery.getUserProperties();
+        PendingAuthRecovery recovery = takePendingAuthRecovery();
+        WritableMap userProperties = recovery != null ? recovery.getUserProperties() : null;
         if (userProperties != null) {
-            new AccessTokenRetrievalTask(this).execute(userProperties, null);
+            recovery.getPromiseWrapper().getTrace().endStage("recovery");
+            new AccessTokenRetrievalTask(this, recovery.getPromiseWrapper())
+                    .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, userProperties, null);
         } else {
             // this is unlikely to happen, since we set the pendingRecovery in AccessTokenRetrievalTask
             promiseWrapper.reject(MODULE_NAME, "rerunFailedAuthTokenTask: recovery failed");
         }
     }
 
+    private synchronized boolean trySetPendingAuthRecovery(PendingAuthRecovery recovery) {
+        if (pendingAuthRecovery != null) {
+            return false;
+        }
+        pendingAuthRecovery = recovery;
+        return true;
+    }
+
+    @Nullable
+    private synchronized PendingAuthRecovery takePendingAuthRecovery() {
+        PendingAuthRecovery recovery = pendingAuthRecovery;
+        pendingAuthRecovery = null;
+        return recovery;
+    }
+
     @ReactMethod
     public void signOut(final Promise promise) {
-        if (_apiClient == null && _oneTapClient == null) {
+        if (signInOptions == null && signInRequest == null) {
             rejectWithNullClientError(promise);
             return;
         }
 
-        if (_apiClient == null) {
-          _oneTapClient.signOut().addOnCompleteListener(result -> {
+        final GoogleSignInAccount account = getAuthBackend().getLastSignedInAccount(getReactApplicationContext());
+        if (signInOptions == null) {
+          getAuthBackend().signOutOneTap(getReactApplicationContext()).addOnCompleteListener(result -> {
+            forgetAccountIfSuccessful(result, account);
             handleSignOutOrRevokeAccessTask(result, promise);
           });
           return;
         }
 
-        _apiClient.signOut()
+        getAuthBackend().signOut(getReactApplicationContext(), signInOptions)
                 .addOnCompleteListener(new OnCompleteListener<Void>() {
                     @Override
                     public void onComplete(@NonNull Task<Void> task) {
+                        forgetAccountIfSuccessful(task, account);
                         handleSignOutOrRevokeAccessTask(task, promise);
                     }
                 });
     }
 
+    /**
+     * After signing out or revoking access, getTokens() must not keep serving the account's cached token.
+     */
+    private void forgetAccountIfSuccessful(@NonNull Task<Void> task, @Nullable GoogleSignInAccount account) {
+        if (task.isSuccessful() && account != null && account.getEmail() != null) {
+            knownAccounts.forget(account.getEmail());
+        }
+    }
+
     private void handleSignOutOrRevokeAccessTask(@NonNull Task<Void> task, final Promise promise) {
         if (task.isSuccessful()) {
             promise.resolve(null);
@@ -386,15 +691,17 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void revokeAccess(final Promise promise) {
-        if (_apiClient == null) {
+        if (signInOptions == null) {
             rejectWithNullClientError(promise);
             return;
         }
 
-        _apiClient.revokeAccess()
+        final GoogleSignInAccount account = getAuthBackend().getLastSignedInAccount(getReactApplicationContext());
+        getAuthBackend().revokeAccess(getReactApplicationContext(), signInOptions)
                 .addOnCompleteListener(new OnCompleteListener<Void>() {
                     @Override
                     public void onComplete(@NonNull Task<Void> task) {
+                        forgetAccountIfSuccessful(task, account);
                         handleSignOutOrRevokeAccessTask(task, promise);
                     }
                 });
@@ -402,16 +709,62 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void isSignedIn(Promise promise) {
-      boolean isSignedIn = GoogleSignIn.getLastSignedInAccount(getReactApplicationContext()) != null || oneTapSignedIn;
+      boolean isSignedIn = getAuthBackend().getLastSignedInAccount(getReactApplicationContext()) != null || oneTapSignedIn;
       promise.resolve(isSignedIn);
     }
 
     @ReactMethod
     public void getCurrentUser(Promise promise) {
-        GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(getReactApplicationContext());
+        GoogleSignInAccount account = getAuthBackend().getLastSignedInAccount(getReactApplicationContext());
         promise.resolve(account == null ? null : getUserProperties(account));
     }
 
+    @ReactMethod
+    public void verifyIdToken(final String idToken, final Promise promise) {
+        if (webClientId == null || webClientId.isEmpty()) {
+            promise.reject(MODULE_NAME, "verifyIdToken requires webClientId - call configure first");
+            return;
+        }
+        IdTokenVerifier.Verdict verdict = getIdTokenVerifier().verify(idToken, webClientId, hostedDomain);
+        WritableMap result = Arguments.createMap();
+        result.putBoolean("isValid", verdict.isValid());
+        result.putString("reason", verdict.failureReason);
+        promise.resolve(result);
+    }
+
+    @ReactMethod
+    public void setIdTokenVerificationKeys(final String jwks, final Promise promise) {
+        try {
+            getIdTokenVerifier().setKeys(jwks);
+            promise.resolve(null);
+        } catch (Exception e) {
+            promise.reject(MODULE_NAME, e);
+        }
+    }
+
+    @ReactMethod
+    public void fetchIdTokenVerificationKeys(final Promise promise) {
+        final IdTokenVerifier verifier = getIdTokenVerifier();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    verifier.fetchKeys(SharedHttpClient.get());
+                    promise.resolve(null);
+                } catch (Exception e) {
+                    promise.reject(MODULE_NAME, e);
+                }
+            }
+        });
+    }
+
+    private synchronized IdTokenVerifier getIdTokenVerifier() {
+        if (idTokenVerifier == null) {
+            idTokenVerifier = new IdTokenVerifier(new IdTokenKeySet(getReactApplicationContext()));
+        }
+        return idTokenVerifier;
+    }
+
     @ReactMethod
     public void clearCachedAccessToken(String tokenToClear, Promise promise) {
         promiseWrapper.setPromiseWithInProgressCheck(promise, "clearCachedAccessToken");
@@ -419,8 +772,14 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void getTokens(final Promise promise) {
-        final GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(getReactApplicationContext());
+    public void getTokens(final ReadableMap config, final Promise promise) {
+        final String accountName = config.hasKey("accountName") ? config.getString("accountName") : null;
+        if (accountName != null) {
+            getTokensForKnownAccount(accountName, promise);
+            return;
+        }
+
+        final GoogleSignInAccount account = getAuthBackend().getLastSignedInAccount(getReactApplicationContext());
         if (account == null) {
             promise.reject(MODULE_NAME, "getTokens requires a user to be signed in");
             return;
@@ -430,23 +789,53 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
         startTokenRetrievalTaskWithRecovery(account);
     }
 
+    private void getTokensForKnownAccount(String accountName, Promise promise) {
+        KnownAccount knownAccount = knownAccounts.get(accountName);
+        if (knownAccount == null) {
+            promise.reject(MODULE_NAME, "getTokens: account " + accountName + " is not known, sign in with it first");
+            return;
+        }
+
+        PromiseWrapper accountPromiseWrapper = knownAccount.getPromiseWrapper();
+        accountPromiseWrapper.setPromiseWithInProgressCheck(promise, "getTokens");
+        WritableMap recoveryParams = Arguments.createMap();
+        recoveryParams.putBoolean(SHOULD_RECOVER, true);
+        // accounts are independent of each other, so their tasks don't need to wait in the serial executor
+        new AccessTokenRetrievalTask(this, accountPromiseWrapper)
+                .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, knownAccount.toUserProperties(), recoveryParams);
+    }
+
     private void startTokenRetrievalTaskWithRecovery(GoogleSignInAccount account) {
-        WritableMap userParams = getUserProperties(account);
+        SigninTrace trace = promiseWrapper.getTrace();
+        WritableMap userParams;
+        trace.beginSection("getUserProperties");
+        try {
+            userParams = getUserProperties(account);
+            rememberAccount(account, userParams);
+        } finally {
+            trace.endSection();
+        }
         WritableMap recoveryParams = Arguments.createMap();
         recoveryParams.putBoolean(SHOULD_RECOVER, true);
-        new AccessTokenRetrievalTask(this).execute(userParams, recoveryParams);
+        new AccessTokenRetrievalTask(this, promiseWrapper).execute(userParams, recoveryParams);
     }
 
     private static class AccessTokenRetrievalTask extends AsyncTask<WritableMap, Void, Void> {
 
         private WeakReference<RNGoogleSigninModule> weakModuleRef;
+        private final PromiseWrapper promiseWrapper;
+        private final SigninTrace trace;
 
-        AccessTokenRetrievalTask(RNGoogleSigninModule module) {
+        AccessTokenRetrievalTask(RNGoogleSigninModule module, PromiseWrapper promiseWrapper) {
             this.weakModuleRef = new WeakReference<>(module);
+            this.promiseWrapper = promiseWrapper;
+            this.trace = promiseWrapper.getTrace();
+            trace.beginStage("queue");
         }
 
         @Override
         protected Void doInBackground(WritableMap... params) {
+            trace.endStage("queue");
             WritableMap userProperties = params[0];
             final RNGoogleSigninModule moduleInstance = weakModuleRef.get();
             if (moduleInstance == null) {
@@ -454,7 +843,7 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
             }
             try {
                 insertAccessTokenIntoUserProperties(moduleInstance, userProperties);
-                moduleInstance.getPromiseWrapper().resolve(userProperties);
+                promiseWrapper.resolve(userProperties);
             } catch (Exception e) {
                 WritableMap recoverySettings = params.length >= 2 ? params[1] : null;
                 handleException(moduleInstance, e, userProperties, recoverySettings);
@@ -464,10 +853,33 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
 
         private void insertAccessTokenIntoUserProperties(RNGoogleSigninModule moduleInstance, WritableMap userProperties) throws IOException, GoogleAuthException {
             String mail = userProperties.getMap("user").getString("email");
-            String token = GoogleAuthUtil.getToken(moduleInstance.getReactApplicationContext(),
-                    new Account(mail, "com.google"),
-                    scopesToString(userProperties.getArray("scopes")));
+            Account account = new Account(mail, "com.google");
+            String token;
+            trace.beginSection("getToken");
+            try {
+                token = moduleInstance.getAuthBackend().getToken(moduleInstance.getReactApplicationContext(),
+                        account,
+                        scopesToString(userProperties.getArray("scopes")));
+            } finally {
+                trace.endSection();
+            }
 
+            String webClientId = moduleInstance.webClientId;
+            if (userProperties.isNull("idToken") && webClientId != null && !webClientId.isEmpty()) {
+                // accounts other than the last signed-in one have no GoogleSignInAccount to take the idToken from
+                String idToken;
+                trace.beginSection("getIdToken");
+                try {
+                    idToken = moduleInstance.getAuthBackend().getToken(moduleInstance.getReactApplicationContext(),
+                            account,
+                            "audience:server:client_id:" + webClientId);
+                } finally {
+                    trace.endSection();
+                }
+                userProperties.putString("idToken", idToken);
+            }
+
+            moduleInstance.knownAccounts.updateAccessToken(mail, token);
             userProperties.putString("accessToken", token);
         }
 
@@ -481,25 +893,33 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
                 if (shouldRecover) {
                     attemptRecovery(moduleInstance, cause, userProperties);
                 } else {
-                    moduleInstance.promiseWrapper.reject(ERROR_USER_RECOVERABLE_AUTH, cause);
+                    promiseWrapper.reject(ERROR_USER_RECOVERABLE_AUTH, cause);
                 }
             } else {
-                moduleInstance.promiseWrapper.reject(MODULE_NAME, cause);
+                promiseWrapper.reject(MODULE_NAME, cause);
             }
         }
 
         private void attemptRecovery(RNGoogleSigninModule moduleInstance, Exception e, WritableMap userProperties) {
             Activity activity = moduleInstance.getCurrentActivity();
             if (activity == null) {
-                moduleInstance.pendingAuthRecovery = null;
-                moduleInstance.promiseWrapper.reject(MODULE_NAME,
+                promiseWrapper.reject(MODULE_NAME,
                         "Cannot attempt recovery auth because app is not in foreground. "
                                 + e.getLocalizedMessage());
+            } else if (!moduleInstance.trySetPendingAuthRecovery(new PendingAuthRecovery(userProperties, promiseWrapper))) {
+                // another account is already showing the recovery UI, only one can be handled at a time
+                promiseWrapper.reject(ERROR_USER_RECOVERABLE_AUTH, e);
             } else {
-                moduleInstance.pendingAuthRecovery = new PendingAuthRecovery(userProperties);
                 Intent recoveryIntent =
                         ((UserRecoverableAuthException) e).getIntent();
-                activity.startActivityForResult(recoveryIntent, REQUEST_CODE_RECOVER_AUTH);
+                moduleInstance.expectActivityResult();
+                trace.beginStage("recovery");
+                try {
+                    activity.startActivityForResult(recoveryIntent, REQUEST_CODE_RECOVER_AUTH);
+                } catch (ActivityNotFoundException activityNotFound) {
+                    moduleInstance.takePendingAuthRecovery();
+                    moduleInstance.rejectFailedLaunch(promiseWrapper, "recovery", activityNotFound);
+                }
             }
         }
     }
@@ -519,7 +939,8 @@ public class RNGoogleSigninModule extends ReactContextBaseJavaModule {
                 return null;
             }
             try {
-                GoogleAuthUtil.clearToken(moduleInstance.getReactApplicationContext(), tokenToClear[0]);
+                moduleInstance.getAuthBackend().clearToken(moduleInstance.getReactApplicationContext(), tokenToClear[0]);
+                moduleInstance.knownAccounts.clearAccessToken(tokenToClear[0]);
                 moduleInstance.getPromiseWrapper().resolve(null);
             } catch (Exception e) {
                 moduleInstance.promiseWrapper.reject(MODULE_NAME, e);
@@ -11,10 +11,23 @@ import java.util.List;
 
 public class RNGoogleSigninPackage implements ReactPackage {
 
+    private final AuthBackend authBackend;
+
+    public RNGoogleSigninPackage() {
+        this(null);
+    }
+
+    /**
+     * @param authBackend null to use {@link PlayServicesAuthBackend}
+     */
+    public RNGoogleSigninPackage(AuthBackend authBackend) {
+        this.authBackend = authBackend;
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
         List<NativeModule> modules = new ArrayList<>();
-        modules.add(new RNGoogleSigninModule(reactContext));
+        modules.add(new RNGoogleSigninModule(reactContext, authBackend));
         return modules;
     }
 
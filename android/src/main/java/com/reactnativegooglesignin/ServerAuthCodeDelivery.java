@@ -0,0 +1,240 @@
+package com.reactnativegooglesignin;
+
+import static com.reactnativegooglesignin.RNGoogleSigninModule.MODULE_NAME;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+/**
+ * Hands server auth codes over to the app's backend without going through JS. Codes are written to a
+ * {@link ServerAuthCodeQueue} first, so they survive process death, and are then POSTed in batches as
+ * {@code {"serverAuthCodes": [{"code", "userId", "email", "createdAt"}, ...]}}. A 2xx response acknowledges
+ * the batch. Other responses and network errors are retried with exponential backoff. The exception is a
+ * 4xx other than 408 or 429, where the server rejected the batch and retrying won't help.
+ * <p>
+ * There is one instance per queue directory for the whole process, see {@link #getInstance(File)}, so that
+ * module instances created by a React reload don't deliver from the same files concurrently. Codes are
+ * appended on the caller's thread; delivery runs on a single daemon thread.
+ */
+public class ServerAuthCodeDelivery {
+    static final int MAX_BATCH_SIZE = 20;
+    static final long INITIAL_BACKOFF_MS = 1000;
+    static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Map<String, ServerAuthCodeDelivery> instances = new HashMap<>();
+
+    private final ServerAuthCodeQueue queue;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "RNGoogleSigninServerAuthCodeDelivery");
+            // undelivered codes stay on disk, so the thread must not keep the process alive
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final long initialBackoffMs;
+    private volatile String endpoint;
+    private long backoffMs;
+    private boolean isDeliveryScheduled;
+
+    @VisibleForTesting
+    ServerAuthCodeDelivery(@NonNull File directory, long initialBackoffMs) {
+        this.queue = new ServerAuthCodeQueue(directory);
+        this.initialBackoffMs = initialBackoffMs;
+        this.backoffMs = initialBackoffMs;
+    }
+
+    @NonNull
+    public static synchronized ServerAuthCodeDelivery getInstance(@NonNull File directory) {
+        String key = directory.getAbsolutePath();
+        ServerAuthCodeDelivery instance = instances.get(key);
+        if (instance == null) {
+            instance = new ServerAuthCodeDelivery(directory, INITIAL_BACKOFF_MS);
+            instances.put(key, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Sets where codes are delivered and starts delivering codes left over from a previous run.
+     * With a null endpoint, new codes are not enqueued and queued ones stay on disk.
+     */
+    public void setEndpoint(@Nullable String endpoint) {
+        this.endpoint = endpoint;
+        if (endpoint != null) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    backoffMs = initialBackoffMs;
+                    scheduleDelivery(0);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops delivery, like process death would. Instances from {@link #getInstance(File)} are never shut down.
+     */
+    @VisibleForTesting
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return endpoint != null;
+    }
+
+    /**
+     * Writes the code to disk before returning. Call it on a background thread.
+     */
+    @WorkerThread
+    public void enqueue(@NonNull String serverAuthCode, @Nullable String userId, @Nullable String email) {
+        if (!isEnabled()) {
+            return;
+        }
+        JSONObject entry = new JSONObject();
+        try {
+            entry.put("code", serverAuthCode);
+            entry.put("userId", userId);
+            entry.put("email", email);
+            entry.put("createdAt", System.currentTimeMillis());
+        } catch (JSONException e) {
+            Log.e(MODULE_NAME, "could not enqueue server auth code", e);
+            return;
+        }
+        try {
+            // appended here rather than on the delivery thread, where it would wait behind POSTs in progress
+            queue.append(entry);
+        } catch (IOException e) {
+            Log.e(MODULE_NAME, "could not enqueue server auth code", e);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                scheduleDelivery(0);
+            }
+        });
+    }
+
+    private void scheduleDelivery(long delayMs) {
+        if (isDeliveryScheduled) {
+            return;
+        }
+        isDeliveryScheduled = true;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                isDeliveryScheduled = false;
+                deliver();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void deliver() {
+        String endpoint = this.endpoint;
+        if (endpoint == null) {
+            return;
+        }
+        try {
+            ServerAuthCodeQueue.Batch batch = queue.peek(MAX_BATCH_SIZE);
+            while (!batch.isEmpty()) {
+                if (!post(endpoint, batch)) {
+                    scheduleDelivery(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                    return;
+                }
+                queue.acknowledge(batch);
+                backoffMs = initialBackoffMs;
+                batch = queue.peek(MAX_BATCH_SIZE);
+            }
+        } catch (IOException e) {
+            Log.e(MODULE_NAME, "could not read server auth code queue", e);
+        }
+    }
+
+    /**
+     * @return true if the batch is done with, false if it should be retried later
+     */
+    private boolean post(String endpoint, ServerAuthCodeQueue.Batch batch) {
+        final byte[] body;
+        try {
+            body = new JSONObject().put("serverAuthCodes", new JSONArray(batch.entries)).toString().getBytes(UTF_8);
+        } catch (JSONException e) {
+            Log.e(MODULE_NAME, "could not serialize server auth codes, dropping them", e);
+            return true;
+        }
+        // RequestBody.create() has a different, non-deprecated signature in each of OkHttp 3 and 4;
+        // subclassing works with both versions that React Native may bring
+        RequestBody requestBody = new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return JSON;
+            }
+
+            @Override
+            public long contentLength() {
+                return body.length;
+            }
+
+            @Override
+            public void writeTo(@NonNull BufferedSink sink) throws IOException {
+                sink.write(body);
+            }
+        };
+        Request request = new Request.Builder()
+                .url(endpoint)
+                .post(requestBody)
+                .build();
+        try {
+            // the shared client keeps the connection to the endpoint alive between batches
+            Response response = SharedHttpClient.get().newCall(request).execute();
+            try {
+                int code = response.code();
+                if (response.isSuccessful()) {
+                    return true;
+                }
+                if (code >= 400 && code < 500 && code != 408 && code != 429) {
+                    Log.w(MODULE_NAME, "server auth code endpoint rejected " + batch.entries.size() + " codes with " + code + ", dropping them");
+                    return true;
+                }
+                Log.w(MODULE_NAME, "server auth code delivery failed with " + code + ", retrying in " + backoffMs + "ms");
+                return false;
+            } finally {
+                response.close();
+            }
+        } catch (IOException e) {
+            Log.w(MODULE_NAME, "server auth code delivery failed, retrying in " + backoffMs + "ms", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.reactnativegooglesignin;
+
+import static com.reactnativegooglesignin.RNGoogleSigninModule.MODULE_NAME;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of server auth codes that haven't been delivered yet, one JSON object per line.
+ * Delivered entries are acknowledged by storing the byte offset up to which the log was delivered;
+ * once everything is delivered, both files are removed. If the offset can't be trusted, entries are
+ * delivered again rather than skipped, so an entry may be delivered more than once. Thread-safe, so
+ * that entries can be appended on any thread while another one delivers them.
+ */
+public class ServerAuthCodeQueue {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File logFile;
+    private final File offsetFile;
+
+    public static class Batch {
+        final List<JSONObject> entries;
+        final long endOffset;
+
+        Batch(List<JSONObject> entries, long endOffset) {
+            this.entries = entries;
+            this.endOffset = endOffset;
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+    }
+
+    public ServerAuthCodeQueue(@NonNull File directory) {
+        this.logFile = new File(directory, "serverAuthCodes.log");
+        this.offsetFile = new File(directory, "serverAuthCodes.offset");
+    }
+
+    public synchronized void append(@NonNull JSONObject entry) throws IOException {
+        File directory = logFile.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("could not create " + directory);
+        }
+        String prefix = endsWithPartialLine() ? "\n" : "";
+        FileOutputStream out = new FileOutputStream(logFile, true);
+        try {
+            out.write((prefix + entry.toString() + "\n").getBytes(UTF_8));
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return up to maxEntries undelivered entries, in the order they were appended
+     */
+    @NonNull
+    public synchronized Batch peek(int maxEntries) throws IOException {
+        List<JSONObject> entries = new ArrayList<>();
+        long offset = readOffset();
+        if (offset > logFile.length() || !isLineStart(offset)) {
+            // the offset belongs to an earlier log, e.g. the log was removed but the offset wasn't;
+            // delivering this log again from the start may duplicate codes, skipping some would lose them
+            Log.w(MODULE_NAME, "server auth code offset " + offset + " does not match the log, delivering from the start");
+            offset = 0;
+        }
+        if (!logFile.exists() || offset >= logFile.length()) {
+            return new Batch(entries, offset);
+        }
+
+        FileInputStream in = new FileInputStream(logFile);
+        try {
+            skipFully(in, offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+            String line;
+            while (entries.size() < maxEntries && (line = reader.readLine()) != null) {
+                byte[] lineBytes = (line + "\n").getBytes(UTF_8);
+                if (offset + lineBytes.length > logFile.length()) {
+                    // the last line was not written completely, e.g. the process died during append
+                    break;
+                }
+                offset += lineBytes.length;
+                try {
+                    entries.add(new JSONObject(line));
+                } catch (JSONException e) {
+                    Log.w(MODULE_NAME, "skipping corrupt server auth code entry", e);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return new Batch(entries, offset);
+    }
+
+    public synchronized void acknowledge(@NonNull Batch batch) throws IOException {
+        if (batch.endOffset >= logFile.length()) {
+            // everything was delivered, start over with empty files. The offset is reset durably before the
+            // log is removed: a stale offset would skip codes appended to the next log
+            writeOffset(0);
+            if (!logFile.delete() && logFile.exists()) {
+                throw new IOException("could not delete " + logFile);
+            }
+            if (!offsetFile.delete() && offsetFile.exists()) {
+                // harmless, a zero offset is the same as no offset
+                Log.w(MODULE_NAME, "could not delete " + offsetFile);
+            }
+            return;
+        }
+        writeOffset(batch.endOffset);
+    }
+
+    private void writeOffset(long offset) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(offsetFile, "rws");
+        try {
+            file.setLength(0);
+            file.writeLong(offset);
+        } finally {
+            file.close();
+        }
+    }
+
+    private boolean isLineStart(long offset) throws IOException {
+        if (offset == 0 || !logFile.exists()) {
+            return true;
+        }
+        RandomAccessFile file = new RandomAccessFile(logFile, "r");
+        try {
+            file.seek(offset - 1);
+            return file.read() == '\n';
+        } finally {
+            file.close();
+        }
+    }
+
+    private boolean endsWithPartialLine() throws IOException {
+        if (!logFile.exists() || logFile.length() == 0) {
+            return false;
+        }
+        RandomAccessFile file = new RandomAccessFile(logFile, "r");
+        try {
+            file.seek(file.length() - 1);
+            return file.read() != '\n';
+        } finally {
+            file.close();
+        }
+    }
+
+    private long readOffset() throws IOException {
+        if (!offsetFile.exists() || offsetFile.length() < 8) {
+            return 0;
+        }
+        RandomAccessFile file = new RandomAccessFile(offsetFile, "r");
+        try {
+            return file.readLong();
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void skipFully(FileInputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new IOException("server auth code log is shorter than the delivered offset");
+            }
+            count -= skipped;
+        }
+    }
+}
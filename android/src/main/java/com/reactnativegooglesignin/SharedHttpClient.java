@@ -0,0 +1,24 @@
+package com.reactnativegooglesignin;
+
+import androidx.annotation.NonNull;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * The OkHttpClient for the module's own requests (ID token keys, server auth code delivery). A single
+ * client shares one connection pool and dispatcher, created on first use.
+ */
+class SharedHttpClient {
+    private static OkHttpClient client;
+
+    private SharedHttpClient() {
+    }
+
+    @NonNull
+    static synchronized OkHttpClient get() {
+        if (client == null) {
+            client = new OkHttpClient();
+        }
+        return client;
+    }
+}
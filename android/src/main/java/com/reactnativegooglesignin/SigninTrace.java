@@ -0,0 +1,91 @@
+package com.reactnativegooglesignin;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * android.os.Trace sections for a single operation (e.g. one signIn call), visible in Perfetto / systrace captures.
+ * Every operation gets a correlation id: async sections use it as their cookie and sync sections carry it in their name,
+ * so all stages of one call can be found even when they run on different threads.
+ * Sections are only recorded while a trace is being captured; async sections require API 29.
+ */
+public class SigninTrace {
+    static final SigninTrace NONE = new SigninTrace(null, 0);
+
+    private static final String PREFIX = "RNGoogleSignin.";
+    private static final AtomicInteger nextCorrelationId = new AtomicInteger(1);
+
+    private final String operation;
+    private final int correlationId;
+    private boolean ended;
+
+    private SigninTrace(String operation, int correlationId) {
+        this.operation = operation;
+        this.correlationId = correlationId;
+    }
+
+    static SigninTrace begin(String operation) {
+        SigninTrace trace = new SigninTrace(operation, nextCorrelationId.getAndIncrement());
+        beginAsync(PREFIX + operation, trace.correlationId);
+        return trace;
+    }
+
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Starts a stage that may end on another thread, e.g. a thread hop or an activity round trip.
+     */
+    void beginStage(String stage) {
+        if (operation != null) {
+            beginAsync(stageName(stage), correlationId);
+        }
+    }
+
+    void endStage(String stage) {
+        if (operation != null) {
+            endAsync(stageName(stage), correlationId);
+        }
+    }
+
+    /**
+     * Starts a stage that ends on the same thread. Must be paired with {@link #endSection()}.
+     */
+    void beginSection(String stage) {
+        if (operation != null) {
+            Trace.beginSection(stageName(stage) + " #" + correlationId);
+        }
+    }
+
+    void endSection() {
+        if (operation != null) {
+            Trace.endSection();
+        }
+    }
+
+    synchronized void end() {
+        if (operation != null && !ended) {
+            ended = true;
+            endAsync(PREFIX + operation, correlationId);
+        }
+    }
+
+    private String stageName(String stage) {
+        return PREFIX + operation + "." + stage;
+    }
+
+    private static void beginAsync(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    private static void endAsync(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+}
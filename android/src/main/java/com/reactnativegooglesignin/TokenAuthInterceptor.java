@@ -0,0 +1,87 @@
+package com.reactnativegooglesignin;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.auth.GoogleAuthException;
+
+import java.io.IOException;
+
+import okhttp3.Authenticator;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Adds a bearer token from {@link TokenProvider} to requests that don't have an Authorization header,
+ * and, when registered as the client's authenticator too, retries once with a new token on a 401.
+ * <pre>
+ * TokenAuthInterceptor auth = new TokenAuthInterceptor(TokenProvider.from(reactContext), null);
+ * new OkHttpClient.Builder().addInterceptor(auth).authenticator(auth).build();
+ * </pre>
+ */
+public class TokenAuthInterceptor implements Interceptor, Authenticator {
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenProvider tokenProvider;
+    @Nullable
+    private final String accountName;
+
+    /**
+     * @param accountName email of a known account, or null for the last signed-in account
+     */
+    public TokenAuthInterceptor(@NonNull TokenProvider tokenProvider, @Nullable String accountName) {
+        this.tokenProvider = tokenProvider;
+        this.accountName = accountName;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header(HEADER_AUTHORIZATION) != null) {
+            return chain.proceed(request);
+        }
+        String token = getAccessToken();
+        return chain.proceed(withToken(request, token));
+    }
+
+    @Nullable
+    @Override
+    public Request authenticate(@Nullable Route route, Response response) throws IOException {
+        if (response.priorResponse() != null) {
+            // we already retried with a new token, give up
+            return null;
+        }
+        String header = response.request().header(HEADER_AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String rejectedToken = header.substring(BEARER_PREFIX.length());
+        try {
+            tokenProvider.invalidateAccessToken(accountName, rejectedToken);
+        } catch (GoogleAuthException e) {
+            throw new IOException(e);
+        }
+        String token = getAccessToken();
+        if (token.equals(rejectedToken)) {
+            return null;
+        }
+        return withToken(response.request(), token);
+    }
+
+    private String getAccessToken() throws IOException {
+        try {
+            return tokenProvider.getAccessToken(accountName);
+        } catch (GoogleAuthException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static Request withToken(Request request, String token) {
+        return request.newBuilder()
+                .header(HEADER_AUTHORIZATION, BEARER_PREFIX + token)
+                .build();
+    }
+}
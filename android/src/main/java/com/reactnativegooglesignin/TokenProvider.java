@@ -0,0 +1,168 @@
+package com.reactnativegooglesignin;
+
+import static com.reactnativegooglesignin.Utils.getGrantedScopes;
+import static com.reactnativegooglesignin.Utils.scopesToString;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.os.AsyncTask;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.facebook.react.bridge.ReactContext;
+import com.google.android.gms.auth.GoogleAuthException;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+
+import java.io.IOException;
+
+/**
+ * Native access to the access tokens of known accounts, sharing its cache with getTokens() called from JS.
+ * Obtain it via {@link #from(ReactContext)}. A {@code null} account name means the last signed-in account.
+ * <p>
+ * Google does not tell us when a token expires, and Play Services may hand out a token it cached long
+ * before our getToken call, so freshness is only a heuristic: a cached token is reused for
+ * {@link #TOKEN_FRESHNESS_MS} after we obtained it. The window is kept short because the token may
+ * already be close to its one-hour lifetime when we get it. Correctness relies on tokens rejected by a
+ * server being passed to {@link #invalidateAccessToken(String)}; {@link TokenAuthInterceptor} does that on a 401.
+ */
+public class TokenProvider {
+    public static final long TOKEN_FRESHNESS_MS = 5 * 60 * 1000;
+
+    public interface Callback {
+        void onSuccess(@NonNull String accessToken);
+
+        void onError(@NonNull Exception e);
+    }
+
+    private final Context context;
+    private final KnownAccounts knownAccounts;
+    private final AuthBackend authBackend;
+
+    TokenProvider(Context context, KnownAccounts knownAccounts, AuthBackend authBackend) {
+        this.context = context.getApplicationContext();
+        this.knownAccounts = knownAccounts;
+        this.authBackend = authBackend;
+    }
+
+    @Nullable
+    public static TokenProvider from(ReactContext reactContext) {
+        RNGoogleSigninModule module = reactContext.getNativeModule(RNGoogleSigninModule.class);
+        return module == null ? null : module.getTokenProvider();
+    }
+
+    /**
+     * Returns the cached token if it is fresh, without blocking. Safe to call from any thread.
+     */
+    @Nullable
+    public String getCachedAccessToken(@Nullable String accountName) {
+        KnownAccount account = findAccount(accountName);
+        return account == null ? null : getFreshToken(account);
+    }
+
+    /**
+     * Returns the cached token if it is fresh, otherwise fetches a new one from Play Services.
+     * Concurrent callers for the same account share a single fetch. Must not be called on the main thread.
+     */
+    @WorkerThread
+    @NonNull
+    public String getAccessToken(@Nullable String accountName) throws IOException, GoogleAuthException {
+        KnownAccount account = findAccount(accountName);
+        if (account == null) {
+            throw new GoogleAuthException(accountName == null
+                    ? "TokenProvider requires a user to be signed in"
+                    : "TokenProvider: account " + accountName + " is not known, sign in with it first");
+        }
+
+        synchronized (account.getFetchLock()) {
+            String cached = getFreshToken(account);
+            if (cached != null) {
+                return cached;
+            }
+            String token = authBackend.getToken(context,
+                    new Account(account.getEmail(), "com.google"),
+                    scopesToString(account.getScopes()));
+            account.setAccessToken(token, System.currentTimeMillis());
+            return token;
+        }
+    }
+
+    /**
+     * Same as {@link #getAccessToken(String)}, but runs in the background and reports to the callback.
+     * The cached token, if fresh, is delivered synchronously.
+     */
+    public void fetchAccessToken(@Nullable final String accountName, @NonNull final Callback callback) {
+        String cached = getCachedAccessToken(accountName);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                String token;
+                try {
+                    token = getAccessToken(accountName);
+                } catch (Exception e) {
+                    callback.onError(e);
+                    return;
+                }
+                callback.onSuccess(token);
+            }
+        });
+    }
+
+    /**
+     * Removes the token from the Play Services cache and from ours, so that the next call fetches a new one.
+     */
+    @WorkerThread
+    public void invalidateAccessToken(@NonNull String accessToken) throws IOException, GoogleAuthException {
+        invalidateAccessToken(knownAccounts.findByAccessToken(accessToken), accessToken);
+    }
+
+    /**
+     * Same as {@link #invalidateAccessToken(String)} for a token that belongs to the given account, which
+     * also works when our cache no longer holds the token.
+     */
+    @WorkerThread
+    public void invalidateAccessToken(@Nullable String accountName, @NonNull String accessToken) throws IOException, GoogleAuthException {
+        invalidateAccessToken(findAccount(accountName), accessToken);
+    }
+
+    private void invalidateAccessToken(@Nullable KnownAccount account, @NonNull String accessToken) throws IOException, GoogleAuthException {
+        if (account == null) {
+            authBackend.clearToken(context, accessToken);
+            knownAccounts.clearAccessToken(accessToken);
+            return;
+        }
+        // Play Services first, and under the fetch lock: a fetch running between the two steps would get
+        // the rejected token from Play Services again and cache it as fresh
+        synchronized (account.getFetchLock()) {
+            authBackend.clearToken(context, accessToken);
+            knownAccounts.clearAccessToken(accessToken);
+        }
+    }
+
+    @Nullable
+    private KnownAccount findAccount(@Nullable String accountName) {
+        if (accountName != null) {
+            return knownAccounts.get(accountName);
+        }
+        GoogleSignInAccount lastSignedIn = authBackend.getLastSignedInAccount(context);
+        if (lastSignedIn == null || lastSignedIn.getEmail() == null) {
+            return null;
+        }
+        KnownAccount account = knownAccounts.get(lastSignedIn.getEmail());
+        return account != null ? account : knownAccounts.remember(lastSignedIn.getEmail(), getGrantedScopes(lastSignedIn));
+    }
+
+    @Nullable
+    private static String getFreshToken(KnownAccount account) {
+        synchronized (account) {
+            String token = account.getAccessToken();
+            boolean isFresh = System.currentTimeMillis() - account.getAccessTokenObtainedAt() < TOKEN_FRESHNESS_MS;
+            return token != null && isFresh ? token : null;
+        }
+    }
+}
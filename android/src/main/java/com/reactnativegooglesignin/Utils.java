@@ -20,6 +20,9 @@ import com.google.android.gms.tasks.Task;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Utils {
 
     static String scopesToString(ReadableArray scopes) {
@@ -30,6 +33,26 @@ public class Utils {
         return sb.toString().trim();
     }
 
+    static String scopesToString(List<String> scopes) {
+        StringBuilder sb = new StringBuilder("oauth2:");
+        for (String scope : scopes) {
+            sb.append(scope).append(" ");
+        }
+        return sb.toString().trim();
+    }
+
+    @NonNull
+    static List<String> getGrantedScopes(@NonNull GoogleSignInAccount acct) {
+        List<String> scopes = new ArrayList<>();
+        for (Scope scope : acct.getGrantedScopes()) {
+            String scopeString = scope.toString();
+            if (scopeString.startsWith("http")) {
+                scopes.add(scopeString);
+            }
+        }
+        return scopes;
+    }
+
 
     static WritableMap getUserProperties(@NonNull GoogleSignInAccount acct) {
         Uri photoUrl = acct.getPhotoUrl();
@@ -48,11 +71,8 @@ public class Utils {
         params.putString("serverAuthCode", acct.getServerAuthCode());
 
         WritableArray scopes = Arguments.createArray();
-        for (Scope scope : acct.getGrantedScopes()) {
-            String scopeString = scope.toString();
-            if (scopeString.startsWith("http")) {
-                scopes.pushString(scopeString);
-            }
+        for (String scope : getGrantedScopes(acct)) {
+            scopes.pushString(scope);
         }
         params.putArray("scopes", scopes);
         return params;
@@ -0,0 +1,198 @@
+package com.reactnativegooglesignin;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires thousands of overlapping getTokens / signInSilently / signOut calls at the module, backed by
+ * {@link FakeAuthBackend}, and reports throughput, latency percentiles, lost and double-settled promises
+ * and contention. Calls are made from a single thread, like React Native's native modules thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = ShadowArguments.class)
+public class AuthBackendStressTest {
+    private static final int CALLS = 3000;
+    private static final long MIN_LATENCY_MS = 0;
+    private static final long MAX_LATENCY_MS = 5;
+    private static final double FAILURE_RATE = 0.1;
+    private static final long SEED = 42;
+    private static final long TIMEOUT_MS = 60 * 1000;
+    // how long to keep watching after everything settled, to catch promises that settle a second time
+    private static final long QUIET_PERIOD_MS = 500;
+
+    private FakeAuthBackend backend;
+    private RNGoogleSigninModule module;
+    private ExecutorService nativeModulesThread;
+
+    /**
+     * Records how often, and when, a promise was settled.
+     */
+    private static class CountingPromise implements Answer<Object> {
+        final Promise promise = mock(Promise.class, withSettings().stubOnly().defaultAnswer(this));
+        final AtomicInteger settleCount = new AtomicInteger();
+        volatile long startNanos;
+        volatile long settledNanos;
+        volatile String rejectionCode;
+
+        @Override
+        public Object answer(InvocationOnMock invocation) {
+            String method = invocation.getMethod().getName();
+            if (!method.startsWith("resolve") && !method.startsWith("reject")) {
+                return null;
+            }
+            if (settleCount.incrementAndGet() == 1) {
+                settledNanos = System.nanoTime();
+                Object firstArgument = invocation.getArguments().length > 0 ? invocation.getArgument(0) : null;
+                if (method.startsWith("reject") && firstArgument instanceof String) {
+                    rejectionCode = (String) firstArgument;
+                }
+            }
+            return null;
+        }
+
+        boolean isSettled() {
+            return settleCount.get() > 0;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        GoogleSignInAccount account = mock(GoogleSignInAccount.class);
+        when(account.getEmail()).thenReturn("stress@example.com");
+        when(account.getId()).thenReturn("1");
+
+        backend = new FakeAuthBackend(account, MIN_LATENCY_MS, MAX_LATENCY_MS, FAILURE_RATE, SEED);
+        module = new RNGoogleSigninModule(new ReactApplicationContext(RuntimeEnvironment.application), backend);
+        module.configure(new JavaOnlyMap(), new CountingPromise().promise);
+        nativeModulesThread = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        nativeModulesThread.shutdownNow();
+        module.invalidate();
+        backend.shutdown();
+    }
+
+    @Test
+    public void overlappingCallsSettleEveryPromiseExactlyOnce() throws InterruptedException {
+        final CountingPromise[] promises = new CountingPromise[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            promises[i] = new CountingPromise();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            final int call = i;
+            nativeModulesThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    CountingPromise promise = promises[call];
+                    promise.startNanos = System.nanoTime();
+                    switch (call % 3) {
+                        case 0:
+                            module.getTokens(new JavaOnlyMap(), promise.promise);
+                            break;
+                        case 1:
+                            module.signInSilently(promise.promise);
+                            break;
+                        default:
+                            module.signOut(promise.promise);
+                            break;
+                    }
+                }
+            });
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (countSettled(promises) < CALLS && System.currentTimeMillis() < deadline) {
+            // Task listeners without an executor run on the main looper, which Robolectric only runs when asked
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(1);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long quietUntil = System.currentTimeMillis() + QUIET_PERIOD_MS;
+        while (System.currentTimeMillis() < quietUntil) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(1);
+        }
+
+        int lost = 0;
+        int doubleSettled = 0;
+        int overwritten = 0;
+        long[] latenciesNanos = new long[CALLS];
+        int settled = 0;
+        for (CountingPromise promise : promises) {
+            int settleCount = promise.settleCount.get();
+            if (settleCount == 0) {
+                lost++;
+                continue;
+            }
+            if (settleCount > 1) {
+                doubleSettled++;
+            }
+            if (PromiseWrapper.ASYNC_OP_IN_PROGRESS.equals(promise.rejectionCode)) {
+                overwritten++;
+            }
+            latenciesNanos[settled++] = promise.settledNanos - promise.startNanos;
+        }
+        long[] latencies = Arrays.copyOf(latenciesNanos, settled);
+        Arrays.sort(latencies);
+
+        System.out.println("AuthBackendStressTest: " + CALLS + " calls, backend latency "
+                + MIN_LATENCY_MS + "-" + MAX_LATENCY_MS + "ms, failure rate " + FAILURE_RATE);
+        System.out.printf("  throughput: %.0f calls/s%n", settled / (elapsedNanos / 1e9));
+        System.out.printf("  latency: p50 %.2fms, p99 %.2fms, p99.9 %.2fms, max %.2fms%n",
+                percentileMs(latencies, 0.5), percentileMs(latencies, 0.99),
+                percentileMs(latencies, 0.999), percentileMs(latencies, 1));
+        System.out.println("  lost promises: " + lost + ", double-settled promises: " + doubleSettled);
+        System.out.println("  contention: " + overwritten + " promises rejected with " + PromiseWrapper.ASYNC_OP_IN_PROGRESS
+                + ", at most " + backend.getMaxCallsInFlight() + " backend calls in flight");
+
+        assertEquals("lost promises", 0, lost);
+        assertEquals("double-settled promises", 0, doubleSettled);
+    }
+
+    private static int countSettled(CountingPromise[] promises) {
+        int count = 0;
+        for (CountingPromise promise : promises) {
+            if (promise.isSettled()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+}
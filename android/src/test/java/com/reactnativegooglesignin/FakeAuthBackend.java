@@ -0,0 +1,238 @@
+package com.reactnativegooglesignin;
+
+import android.accounts.Account;
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.auth.GoogleAuthException;
+import com.google.android.gms.auth.api.identity.BeginSignInRequest;
+import com.google.android.gms.auth.api.identity.BeginSignInResult;
+import com.google.android.gms.auth.api.identity.SignInCredential;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
+import com.google.android.gms.common.api.Scope;
+import com.google.android.gms.common.api.Status;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link AuthBackend} that doesn't talk to Play Services. Every call takes a latency drawn from
+ * [minLatencyMs, maxLatencyMs] and fails with probability failureRate. Latencies and failures come from
+ * a seeded Random, so the sequence of outcomes is the same for every run with the same seed.
+ * Tasks are completed on a small thread pool, blocking calls (getToken, clearToken) sleep on the caller.
+ */
+class FakeAuthBackend implements AuthBackend {
+    private final GoogleSignInAccount account;
+    private final long minLatencyMs;
+    private final long maxLatencyMs;
+    private final double failureRate;
+    private final Random random;
+    private final ScheduledExecutorService completer = Executors.newScheduledThreadPool(4);
+
+    private final AtomicInteger callsInFlight = new AtomicInteger();
+    private final AtomicInteger maxCallsInFlight = new AtomicInteger();
+    private final AtomicInteger tokenCounter = new AtomicInteger();
+
+    private volatile boolean isSignedIn = true;
+
+    FakeAuthBackend(GoogleSignInAccount account, long minLatencyMs, long maxLatencyMs, double failureRate, long seed) {
+        this.account = account;
+        this.minLatencyMs = minLatencyMs;
+        this.maxLatencyMs = maxLatencyMs;
+        this.failureRate = failureRate;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * The highest number of backend calls that were running at the same time.
+     */
+    int getMaxCallsInFlight() {
+        return maxCallsInFlight.get();
+    }
+
+    void shutdown() {
+        completer.shutdownNow();
+    }
+
+    private static class Outcome {
+        final long latencyMs;
+        final boolean fails;
+
+        Outcome(long latencyMs, boolean fails) {
+            this.latencyMs = latencyMs;
+            this.fails = fails;
+        }
+    }
+
+    private synchronized Outcome nextOutcome() {
+        long latencyMs = minLatencyMs + (long) (random.nextDouble() * (maxLatencyMs - minLatencyMs));
+        return new Outcome(latencyMs, random.nextDouble() < failureRate);
+    }
+
+    private void enter() {
+        int inFlight = callsInFlight.incrementAndGet();
+        int max;
+        do {
+            max = maxCallsInFlight.get();
+        } while (inFlight > max && !maxCallsInFlight.compareAndSet(max, inFlight));
+    }
+
+    private void exit() {
+        callsInFlight.decrementAndGet();
+    }
+
+    private interface Result<T> {
+        T get();
+    }
+
+    private <T> Task<T> completeLater(final Result<T> result) {
+        final Outcome outcome = nextOutcome();
+        final TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        enter();
+        completer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                exit();
+                if (outcome.fails) {
+                    source.setException(new ApiException(new Status(CommonStatusCodes.NETWORK_ERROR)));
+                } else {
+                    source.setResult(result.get());
+                }
+            }
+        }, outcome.latencyMs, TimeUnit.MILLISECONDS);
+        return source.getTask();
+    }
+
+    private void block() throws IOException {
+        Outcome outcome = nextOutcome();
+        enter();
+        try {
+            Thread.sleep(outcome.latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            exit();
+        }
+        if (outcome.fails) {
+            throw new IOException("injected failure");
+        }
+    }
+
+    @NonNull
+    @Override
+    public Task<GoogleSignInAccount> silentSignIn(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return completeLater(new Result<GoogleSignInAccount>() {
+            @Override
+            public GoogleSignInAccount get() {
+                isSignedIn = true;
+                return account;
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public Intent getSignInIntent(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return new Intent();
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> signOut(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return completeLater(new Result<Void>() {
+            @Override
+            public Void get() {
+                isSignedIn = false;
+                return null;
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> revokeAccess(@NonNull Context context, @NonNull GoogleSignInOptions options) {
+        return signOut(context, options);
+    }
+
+    @Nullable
+    @Override
+    public GoogleSignInAccount getLastSignedInAccount(@NonNull Context context) {
+        return isSignedIn ? account : null;
+    }
+
+    @NonNull
+    @Override
+    public Task<GoogleSignInAccount> getSignedInAccountFromIntent(@Nullable Intent data) {
+        isSignedIn = true;
+        return Tasks.forResult(account);
+    }
+
+    @Override
+    public void requestPermissions(@NonNull Activity activity, int requestCode, @NonNull GoogleSignInAccount account, @NonNull Scope... scopes) {
+    }
+
+    @NonNull
+    @Override
+    public Task<BeginSignInResult> beginOneTapSignIn(@NonNull Context context, @NonNull BeginSignInRequest request) {
+        return Tasks.forException(new ApiException(new Status(CommonStatusCodes.API_NOT_CONNECTED)));
+    }
+
+    @NonNull
+    @Override
+    public SignInCredential getOneTapCredentialFromIntent(@NonNull Context context, @Nullable Intent data) throws ApiException {
+        throw new ApiException(new Status(CommonStatusCodes.API_NOT_CONNECTED));
+    }
+
+    @NonNull
+    @Override
+    public Task<Void> signOutOneTap(@NonNull Context context) {
+        return completeLater(new Result<Void>() {
+            @Override
+            public Void get() {
+                return null;
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public String getToken(@NonNull Context context, @NonNull Account account, @NonNull String scope) throws IOException, GoogleAuthException {
+        block();
+        return "token-" + tokenCounter.incrementAndGet();
+    }
+
+    @Override
+    public void clearToken(@NonNull Context context, @NonNull String token) throws IOException, GoogleAuthException {
+        block();
+    }
+
+    @Override
+    public int isGooglePlayServicesAvailable(@NonNull Context context) {
+        return ConnectionResult.SUCCESS;
+    }
+
+    @Override
+    public boolean isUserResolvableError(int status) {
+        return false;
+    }
+
+    @Override
+    public void showErrorDialog(@NonNull Activity activity, int status, int requestCode) {
+    }
+}
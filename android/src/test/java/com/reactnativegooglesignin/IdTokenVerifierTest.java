@@ -0,0 +1,247 @@
+package com.reactnativegooglesignin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.util.Base64;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+
+/**
+ * Signs tokens with locally generated RSA keys, which are injected with {@link IdTokenVerifier#setKeys(String)}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class IdTokenVerifierTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String CLIENT_ID = "client-id.apps.googleusercontent.com";
+    private static final String KEY_ID = "key-1";
+    private static final String OTHER_KEY_ID = "key-2";
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    private IdTokenKeySet keySet;
+    private IdTokenVerifier verifier;
+
+    @Before
+    public void setUp() throws Exception {
+        if (keyPair == null) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+            otherKeyPair = generator.generateKeyPair();
+        }
+        keySet = spy(new IdTokenKeySet(RuntimeEnvironment.application));
+        verifier = new IdTokenVerifier(keySet);
+        verifier.setKeys(jwks(jwk(KEY_ID, keyPair)));
+    }
+
+    @Test
+    public void validToken() throws Exception {
+        IdTokenVerifier.Verdict verdict = check(sign(claims()));
+
+        assertTrue(verdict.isValid());
+        assertNull(verdict.failureReason);
+    }
+
+    @Test
+    public void signatureByAnotherKeyIsInvalid() throws Exception {
+        String token = sign(header("RS256", KEY_ID), claims(), otherKeyPair.getPrivate());
+
+        assertInvalid("invalid signature", token);
+    }
+
+    @Test
+    public void tamperedPayloadIsInvalid() throws Exception {
+        String[] parts = sign(claims()).split("\\.");
+        String tampered = parts[0] + "." + base64Url(claims().put("sub", "someone else").toString().getBytes(UTF_8)) + "." + parts[2];
+
+        assertInvalid("invalid signature", tampered);
+    }
+
+    @Test
+    public void unknownKeyIdIsInvalid() throws Exception {
+        String token = sign(header("RS256", "unknown"), claims(), keyPair.getPrivate());
+
+        assertInvalid("unknown signing key", token);
+    }
+
+    @Test
+    public void algorithmOtherThanRs256IsInvalid() throws Exception {
+        String token = sign(header("none", KEY_ID), claims(), keyPair.getPrivate());
+
+        assertInvalid("unsupported algorithm none", token);
+    }
+
+    @Test
+    public void bothIssuerFormsAreAccepted() throws Exception {
+        assertTrue(check(sign(claims().put("iss", "accounts.google.com"))).isValid());
+        assertTrue(check(sign(claims().put("iss", "https://accounts.google.com"))).isValid());
+    }
+
+    @Test
+    public void wrongIssuerIsInvalid() throws Exception {
+        assertInvalid("wrong issuer", sign(claims().put("iss", "https://evil.example.com")));
+    }
+
+    @Test
+    public void wrongAudienceIsInvalid() throws Exception {
+        assertInvalid("wrong audience", sign(claims().put("aud", "other-client-id")));
+    }
+
+    @Test
+    public void audienceArrayContainingClientIdIsValid() throws Exception {
+        String token = sign(claims().put("aud", new JSONArray(Arrays.asList("other-client-id", CLIENT_ID))));
+
+        assertTrue(check(token).isValid());
+    }
+
+    @Test
+    public void audienceArrayWithoutClientIdIsInvalid() throws Exception {
+        String token = sign(claims().put("aud", new JSONArray(Arrays.asList("other-client-id", "another-client-id"))));
+
+        assertInvalid("wrong audience", token);
+    }
+
+    @Test
+    public void hostedDomainMustMatch() throws Exception {
+        String token = sign(claims().put("hd", "example.com"));
+
+        assertTrue(verifier.verify(token, CLIENT_ID, "example.com").isValid());
+        assertEquals("wrong hosted domain", verifier.verify(token, CLIENT_ID, "other.com").failureReason);
+        assertEquals("wrong hosted domain", verifier.verify(sign(claims()), CLIENT_ID, "example.com").failureReason);
+    }
+
+    @Test
+    public void tokenExpiredWithinClockSkewIsValid() throws Exception {
+        long expiredAt = System.currentTimeMillis() - IdTokenVerifier.CLOCK_SKEW_MS / 2;
+
+        assertTrue(check(sign(claims().put("exp", expiredAt / 1000))).isValid());
+    }
+
+    @Test
+    public void tokenExpiredBeyondClockSkewIsInvalid() throws Exception {
+        long expiredAt = System.currentTimeMillis() - IdTokenVerifier.CLOCK_SKEW_MS - 60 * 1000;
+
+        assertInvalid("expired", sign(claims().put("exp", expiredAt / 1000)));
+    }
+
+    @Test
+    public void malformedTokensAreInvalid() throws Exception {
+        assertInvalid("malformed token", "not a token");
+        assertInvalid("malformed token", "a.b");
+        assertInvalid("malformed token", "!!!.@@@.###");
+        assertInvalid("malformed token", base64Url("not json".getBytes(UTF_8)) + ".e30.c2ln");
+    }
+
+    @Test
+    public void verdictIsCachedPerToken() throws Exception {
+        String token = sign(claims());
+
+        assertTrue(check(token).isValid());
+        assertTrue(check(token).isValid());
+
+        verify(keySet, times(1)).getKey(anyString());
+    }
+
+    @Test
+    public void keyRotationClearsCachedVerdicts() throws Exception {
+        String token = sign(claims());
+        assertTrue(check(token).isValid());
+
+        verifier.setKeys(jwks(jwk(OTHER_KEY_ID, otherKeyPair)));
+
+        assertInvalid("unknown signing key", token);
+        assertTrue(check(sign(header("RS256", OTHER_KEY_ID), claims(), otherKeyPair.getPrivate())).isValid());
+    }
+
+    @Test
+    public void keysArePersisted() throws Exception {
+        String token = sign(claims());
+
+        IdTokenVerifier restarted = new IdTokenVerifier(new IdTokenKeySet(RuntimeEnvironment.application));
+
+        assertTrue(restarted.verify(token, CLIENT_ID, null).isValid());
+    }
+
+    private IdTokenVerifier.Verdict check(String token) {
+        return verifier.verify(token, CLIENT_ID, null);
+    }
+
+    private void assertInvalid(String expectedReason, String token) {
+        IdTokenVerifier.Verdict verdict = check(token);
+        assertFalse(verdict.isValid());
+        assertEquals(expectedReason, verdict.failureReason);
+    }
+
+    private static JSONObject claims() throws Exception {
+        return new JSONObject()
+                .put("iss", "https://accounts.google.com")
+                .put("aud", CLIENT_ID)
+                .put("sub", "1234567890")
+                .put("exp", System.currentTimeMillis() / 1000 + 3600);
+    }
+
+    private static JSONObject header(String algorithm, String keyId) throws Exception {
+        return new JSONObject().put("alg", algorithm).put("kid", keyId).put("typ", "JWT");
+    }
+
+    private static String sign(JSONObject claims) throws Exception {
+        return sign(header("RS256", KEY_ID), claims, keyPair.getPrivate());
+    }
+
+    private static String sign(JSONObject header, JSONObject claims, PrivateKey key) throws Exception {
+        String signingInput = base64Url(header.toString().getBytes(UTF_8)) + "." + base64Url(claims.toString().getBytes(UTF_8));
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(key);
+        signature.update(signingInput.getBytes(UTF_8));
+        return signingInput + "." + base64Url(signature.sign());
+    }
+
+    private static JSONObject jwk(String keyId, KeyPair keyPair) throws Exception {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        return new JSONObject()
+                .put("kid", keyId)
+                .put("kty", "RSA")
+                .put("alg", "RS256")
+                .put("use", "sig")
+                .put("n", base64Url(unsigned(publicKey.getModulus())))
+                .put("e", base64Url(unsigned(publicKey.getPublicExponent())));
+    }
+
+    private static String jwks(JSONObject... keys) throws Exception {
+        return new JSONObject().put("keys", new JSONArray(Arrays.asList(keys))).toString();
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.encodeToString(bytes, Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+    }
+}
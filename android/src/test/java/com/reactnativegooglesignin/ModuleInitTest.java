@@ -0,0 +1,33 @@
+package com.reactnativegooglesignin;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import com.facebook.react.bridge.ActivityEventListener;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * What React init does with the module: the constructor and getConstants() must not register the
+ * activity listener, which is only added while an activity result is expected.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = ShadowArguments.class)
+public class ModuleInitTest {
+    @Test
+    public void initDoesNotRegisterActivityListener() {
+        ReactApplicationContext context = spy(new ReactApplicationContext(RuntimeEnvironment.application));
+
+        RNGoogleSigninModule module = new RNGoogleSigninModule(context);
+        module.getConstants();
+
+        verify(context, never()).addActivityEventListener(any(ActivityEventListener.class));
+    }
+}
@@ -0,0 +1,212 @@
+package com.reactnativegooglesignin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Delivers against a local {@link MockWebServer} standing in for the app's backend.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ServerAuthCodeDeliveryTest {
+    private static final long BACKOFF_MS = 10;
+    // keeps an instance that is about to be shut down from retrying before it is
+    private static final long LONG_BACKOFF_MS = 60 * 1000;
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private File directory;
+    private final List<ServerAuthCodeDelivery> deliveries = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        directory = new File(folder.getRoot(), "queue");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (ServerAuthCodeDelivery delivery : deliveries) {
+            delivery.shutdown();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    public void deliversInBatchesOfAtMost20() throws Exception {
+        appendCodes(25);
+        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        start();
+
+        assertEquals(20, takeCodes().length());
+        assertEquals(5, takeCodes().length());
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void enqueuedCodeIsPostedAndAcknowledged() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(204));
+        ServerAuthCodeDelivery delivery = start();
+
+        delivery.enqueue("code-0", "userId", "me@example.com");
+
+        JSONObject entry = takeCodes().getJSONObject(0);
+        assertEquals("code-0", entry.getString("code"));
+        assertEquals("userId", entry.getString("userId"));
+        assertEquals("me@example.com", entry.getString("email"));
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void serverErrorIsRetriedWithBackoff() throws Exception {
+        appendCodes(2);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        start();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("code-0", takeCodes().getJSONObject(0).getString("code"));
+        }
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void networkErrorIsRetried() throws Exception {
+        appendCodes(1);
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        start();
+
+        takeCodes();
+        takeCodes();
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void timeoutAndRateLimitResponsesAreRetried() throws Exception {
+        appendCodes(1);
+        server.enqueue(new MockResponse().setResponseCode(408));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        start();
+
+        takeCodes();
+        takeCodes();
+        takeCodes();
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void rejectedBatchIsDropped() throws Exception {
+        appendCodes(2);
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        start();
+
+        assertEquals(2, takeCodes().length());
+        awaitQueueEmpty();
+        assertNull(server.takeRequest(BACKOFF_MS * 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void undeliveredCodesAreDeliveredAfterRestart() throws Exception {
+        appendCodes(3);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        ServerAuthCodeDelivery beforeRestart = start(LONG_BACKOFF_MS);
+        takeCodes();
+        beforeRestart.shutdown();
+
+        server.enqueue(new MockResponse().setResponseCode(200));
+        start();
+
+        assertEquals(3, takeCodes().length());
+        awaitQueueEmpty();
+    }
+
+    @Test
+    public void partiallyAcknowledgedLogIsResumedAfterRestart() throws Exception {
+        appendCodes(25);
+        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        ServerAuthCodeDelivery beforeRestart = start(LONG_BACKOFF_MS);
+        takeCodes();
+        takeCodes();
+        beforeRestart.shutdown();
+
+        server.enqueue(new MockResponse().setResponseCode(200));
+        start();
+
+        JSONArray codes = takeCodes();
+        assertEquals(5, codes.length());
+        assertEquals("code-20", codes.getJSONObject(0).getString("code"));
+        awaitQueueEmpty();
+    }
+
+    private ServerAuthCodeDelivery start() {
+        return start(BACKOFF_MS);
+    }
+
+    private ServerAuthCodeDelivery start(long backoffMs) {
+        ServerAuthCodeDelivery delivery = new ServerAuthCodeDelivery(directory, backoffMs);
+        deliveries.add(delivery);
+        delivery.setEndpoint(server.url("/codes").toString());
+        return delivery;
+    }
+
+    private void appendCodes(int count) throws IOException, JSONException {
+        ServerAuthCodeQueue queue = new ServerAuthCodeQueue(directory);
+        for (int i = 0; i < count; i++) {
+            queue.append(new JSONObject().put("code", "code-" + i));
+        }
+    }
+
+    private JSONArray takeCodes() throws InterruptedException, JSONException {
+        RecordedRequest request = server.takeRequest(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("no request within " + TIMEOUT_MS + "ms", request);
+        assertEquals("POST", request.getMethod());
+        return new JSONObject(request.getBody().readUtf8()).getJSONArray("serverAuthCodes");
+    }
+
+    private void awaitQueueEmpty() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!new ServerAuthCodeQueue(directory).peek(1).isEmpty()) {
+            assertTrue("queue not empty within " + TIMEOUT_MS + "ms", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.reactnativegooglesignin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ServerAuthCodeQueueTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private ServerAuthCodeQueue queue;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "queue");
+        queue = new ServerAuthCodeQueue(directory);
+    }
+
+    @Test
+    public void peekReturnsEntriesInOrderUpToMax() throws Exception {
+        appendCodes(0, 5);
+
+        ServerAuthCodeQueue.Batch batch = queue.peek(3);
+
+        assertEquals(3, batch.entries.size());
+        assertEquals("code-0", batch.entries.get(0).getString("code"));
+        assertEquals("code-2", batch.entries.get(2).getString("code"));
+    }
+
+    @Test
+    public void acknowledgedEntriesAreNotReturnedAgain() throws Exception {
+        appendCodes(0, 5);
+
+        queue.acknowledge(queue.peek(3));
+        ServerAuthCodeQueue.Batch rest = queue.peek(10);
+
+        assertEquals(2, rest.entries.size());
+        assertEquals("code-3", rest.entries.get(0).getString("code"));
+    }
+
+    @Test
+    public void acknowledgingEverythingRemovesBothFiles() throws Exception {
+        appendCodes(0, 2);
+
+        queue.acknowledge(queue.peek(10));
+
+        assertTrue(queue.peek(10).isEmpty());
+        assertFalse(new File(directory, "serverAuthCodes.log").exists());
+        assertFalse(new File(directory, "serverAuthCodes.offset").exists());
+    }
+
+    @Test
+    public void offsetSurvivesRestart() throws Exception {
+        appendCodes(0, 5);
+        queue.acknowledge(queue.peek(2));
+
+        ServerAuthCodeQueue restarted = new ServerAuthCodeQueue(directory);
+
+        assertEquals("code-2", restarted.peek(10).entries.get(0).getString("code"));
+    }
+
+    @Test
+    public void partialLastLineIsNotReturned() throws Exception {
+        appendCodes(0, 1);
+        // the process died while appending the second entry
+        writeToLog("{\"code\":\"code-");
+
+        ServerAuthCodeQueue.Batch batch = queue.peek(10);
+
+        assertEquals(1, batch.entries.size());
+        assertEquals("code-0", batch.entries.get(0).getString("code"));
+    }
+
+    @Test
+    public void appendAfterPartialLineStartsANewLine() throws Exception {
+        appendCodes(0, 1);
+        writeToLog("{\"code\":\"code-");
+
+        appendCodes(1, 1);
+        ServerAuthCodeQueue.Batch batch = queue.peek(10);
+
+        // the partial line is complete now, but not valid JSON, so it is skipped
+        assertEquals(2, batch.entries.size());
+        assertEquals("code-0", batch.entries.get(0).getString("code"));
+        assertEquals("code-1", batch.entries.get(1).getString("code"));
+    }
+
+    @Test
+    public void staleOffsetInsideALineIsIgnored() throws Exception {
+        // an offset left behind from an earlier, already delivered log
+        appendCodes(0, 1);
+        long staleOffset = new File(directory, "serverAuthCodes.log").length();
+        new File(directory, "serverAuthCodes.log").delete();
+        writeOffset(staleOffset);
+        // the new log grows past the stale offset, which now points into the middle of a line
+        appendCodes(100, 3);
+
+        ServerAuthCodeQueue.Batch batch = queue.peek(10);
+
+        assertEquals(3, batch.entries.size());
+        assertEquals("code-100", batch.entries.get(0).getString("code"));
+    }
+
+    @Test
+    public void staleOffsetBeyondTheLogIsIgnored() throws Exception {
+        writeOffset(10000);
+        appendCodes(0, 2);
+
+        assertEquals(2, queue.peek(10).entries.size());
+    }
+
+    private void appendCodes(int first, int count) throws IOException, JSONException {
+        for (int i = first; i < first + count; i++) {
+            queue.append(new JSONObject().put("code", "code-" + i));
+        }
+    }
+
+    private void writeToLog(String text) throws IOException {
+        FileOutputStream out = new FileOutputStream(new File(directory, "serverAuthCodes.log"), true);
+        try {
+            out.write(text.getBytes(UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeOffset(long offset) throws IOException {
+        directory.mkdirs();
+        RandomAccessFile file = new RandomAccessFile(new File(directory, "serverAuthCodes.offset"), "rw");
+        try {
+            file.setLength(0);
+            file.writeLong(offset);
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.reactnativegooglesignin;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+/**
+ * Arguments creates native maps, which need the React Native JNI libraries. Tests use the Java-only ones.
+ * Unlike a static mock, a shadow applies on every thread, including the module's background threads.
+ */
+@Implements(Arguments.class)
+public class ShadowArguments {
+    @Implementation
+    protected static WritableMap createMap() {
+        return new JavaOnlyMap();
+    }
+
+    @Implementation
+    protected static WritableArray createArray() {
+        return new JavaOnlyArray();
+    }
+}
@@ -54,6 +54,10 @@ const mockGoogleSignin: typeof GoogleSigninSingleton = {
   addScopes: jest.fn().mockResolvedValue(mockUserInfo),
   getCurrentUser: jest.fn().mockResolvedValue(mockUserInfo),
   clearCachedAccessToken: jest.fn().mockResolvedValue(null),
+  verifyIdToken: jest.fn().mockResolvedValue({ isValid: true, reason: null }),
+  setIdTokenVerificationKeys: jest.fn().mockResolvedValue(null),
+  fetchIdTokenVerificationKeys: jest.fn().mockResolvedValue(null),
+  getMainThreadMetrics: jest.fn().mockResolvedValue({}),
 };
 
 jest.mock('@react-native-google-signin/google-signin', () => ({
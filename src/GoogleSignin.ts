@@ -1,6 +1,9 @@
 import { NativeModules, Platform } from 'react-native';
 import type {
   AddScopesParams,
+  GetTokensParams,
+  IdTokenVerificationResult,
+  MainThreadMetrics,
   SignInParams,
   ConfigureParams,
   HasPlayServicesParams,
@@ -49,6 +52,10 @@ class GoogleSignin {
       throw new Error('RNGoogleSignin: offline use requires server web ClientID');
     }
 
+    if (options.serverAuthCodeEndpoint && !options.offlineAccess) {
+      throw new Error('RNGoogleSignin: serverAuthCodeEndpoint requires offlineAccess');
+    }
+
     this.configPromise = RNGoogleSignin.configure(options);
   }
 
@@ -116,12 +123,43 @@ class GoogleSignin {
     return IS_IOS ? null : await RNGoogleSignin.clearCachedAccessToken(tokenString);
   }
 
-  async getTokens(): Promise<{ idToken: string; accessToken: string }> {
+  async verifyIdToken(idToken: string): Promise<IdTokenVerificationResult> {
+    if (IS_IOS) {
+      throw new Error('RNGoogleSignin: verifyIdToken is only available on Android');
+    }
+    await this.configPromise;
+    return RNGoogleSignin.verifyIdToken(idToken);
+  }
+
+  async setIdTokenVerificationKeys(jwks: string): Promise<null> {
+    if (IS_IOS) {
+      throw new Error('RNGoogleSignin: setIdTokenVerificationKeys is only available on Android');
+    }
+    return RNGoogleSignin.setIdTokenVerificationKeys(jwks);
+  }
+
+  async fetchIdTokenVerificationKeys(): Promise<null> {
+    if (IS_IOS) {
+      throw new Error('RNGoogleSignin: fetchIdTokenVerificationKeys is only available on Android');
+    }
+    return RNGoogleSignin.fetchIdTokenVerificationKeys();
+  }
+
+  async getMainThreadMetrics(): Promise<MainThreadMetrics> {
+    if (IS_IOS) {
+      throw new Error('RNGoogleSignin: getMainThreadMetrics is only available on Android');
+    }
+    return RNGoogleSignin.getMainThreadMetrics();
+  }
+
+  async getTokens(
+    options: GetTokensParams = {},
+  ): Promise<{ idToken: string; accessToken: string }> {
     if (IS_IOS) {
       const tokens = await RNGoogleSignin.getTokens();
       return tokens;
     } else {
-      const userObject = await RNGoogleSignin.getTokens();
+      const userObject = await RNGoogleSignin.getTokens(options);
       return {
         idToken: userObject.idToken,
         accessToken: userObject.accessToken,
@@ -31,6 +31,14 @@ export interface AddScopesParams {
   scopes?: string[];
 }
 
+export interface GetTokensParams {
+  /**
+   * ANDROID ONLY. Email of a previously signed-in account to get tokens for.
+   * Defaults to the last signed-in account.
+   */
+  accountName?: string;
+}
+
 export interface ConfigureParams {
   /**
    * The Google API scopes to request access to. Default is email and profile.
@@ -72,6 +80,12 @@ export interface ConfigureParams {
    */
   accountName?: string;
 
+  /**
+   * ANDROID ONLY. If set, every serverAuthCode is also persisted natively and POSTed to this URL,
+   * surviving app restarts and network failures. Requires offlineAccess.
+   */
+  serverAuthCodeEndpoint?: string;
+
   /**
    * iOS ONLY
    * The OpenID2 realm of the home web server. This allows Google to include the user's OpenID
@@ -121,6 +135,19 @@ export interface User {
   serverAuthCode: string | null;
 }
 
+export interface IdTokenVerificationResult {
+  isValid: boolean;
+  /**
+   * Why the token is not valid, e.g. "expired", "wrong audience" or "unknown signing key". Null if valid.
+   */
+  reason: string | null;
+}
+
+/**
+ * Main-thread time used per operation (signIn, signInSilently, oneTap, addScopes, getTokens).
+ */
+export type MainThreadMetrics = Record<string, { count: number; totalMs: number; maxMs: number }>;
+
 export interface NativeModuleError extends Error {
   code: string;
 }